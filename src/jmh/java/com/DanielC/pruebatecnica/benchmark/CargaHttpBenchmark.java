@@ -0,0 +1,63 @@
+package com.DanielC.pruebatecnica.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga HTTP contra una instancia ya arrancada, para comparar hilos de plataforma con
+ * el perfil hilos-virtuales. SampleTime da los percentiles (p99) y Throughput las peticiones/s.
+ * No se ejecuta con ./gradlew jmh salvo que se incluya explícitamente (-PjmhIncludes=CargaHttp).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+public class CargaHttpBenchmark {
+
+    @Param("http://localhost:8080")
+    public String baseUrl;
+
+    @Param({
+            "/api/v1/franquicias?expand=none",
+            "/api/v1/productos?limit=100",
+            "/api/v1/franquicias/1/productos-mayor-stock",
+            "/api/v1/franquicias/1/productos-top?k=10"
+    })
+    public String ruta;
+
+    private HttpClient cliente;
+    private HttpRequest peticion;
+
+    @Setup
+    public void preparar() {
+        cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        peticion = HttpRequest.newBuilder(URI.create(baseUrl + ruta)).GET().build();
+    }
+
+    @Benchmark
+    public int peticion() throws IOException, InterruptedException {
+        HttpResponse<Void> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException(ruta + " respondió " + respuesta.statusCode());
+        }
+        return respuesta.statusCode();
+    }
+}
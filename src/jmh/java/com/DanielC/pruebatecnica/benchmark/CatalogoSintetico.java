@@ -0,0 +1,140 @@
+package com.DanielC.pruebatecnica.benchmark;
+
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.model.Franquicia;
+import com.DanielC.pruebatecnica.model.Producto;
+import com.DanielC.pruebatecnica.model.Sucursal;
+
+import com.DanielC.pruebatecnica.repository.FranquiciaRepository;
+import com.DanielC.pruebatecnica.repository.ProductoRepository;
+import com.DanielC.pruebatecnica.repository.SucursalRepository;
+import com.DanielC.pruebatecnica.service.AlertasStock;
+import com.DanielC.pruebatecnica.service.CatalogoCache;
+import com.DanielC.pruebatecnica.service.EnsambladorCatalogo;
+import com.DanielC.pruebatecnica.service.FranquiciaServiceImpl;
+import com.DanielC.pruebatecnica.service.ImportacionValidator;
+import com.DanielC.pruebatecnica.service.IndiceMayorStock;
+import com.DanielC.pruebatecnica.service.InventarioFranquicias;
+import com.DanielC.pruebatecnica.service.ProductoServiceImpl;
+import com.DanielC.pruebatecnica.service.SucursalServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Catálogo en memoria para los benchmarks: franquicias con sucursales y productos enlazados
+ */
+final class CatalogoSintetico {
+
+    static final int FRANQUICIAS = 10;
+    static final int SUCURSALES_POR_FRANQUICIA = 10;
+
+    final List<Franquicia> franquicias = new ArrayList<>();
+    final List<Sucursal> sucursales = new ArrayList<>();
+    final List<Producto> productos = new ArrayList<>();
+
+    // Las mismas filas como proyecciones planas (findResumenByFranquiciaId)
+    final List<SucursalResponseDTO> sucursalesResumen = new ArrayList<>();
+    final List<ProductoResponseDTO> productosResumen = new ArrayList<>();
+
+    CatalogoSintetico(int productosPorSucursal) {
+        LocalDateTime ahora = LocalDateTime.of(2024, 1, 1, 12, 0);
+        long sucursalId = 1;
+        long productoId = 1;
+        for (long f = 1; f <= FRANQUICIAS; f++) {
+            Franquicia franquicia = Franquicia.builder()
+                    .id(f).nombre("Franquicia " + f).sucursales(new ArrayList<>())
+                    .createdAt(ahora).updatedAt(ahora).version(0L)
+                    .build();
+            for (int s = 0; s < SUCURSALES_POR_FRANQUICIA; s++) {
+                Sucursal sucursal = Sucursal.builder()
+                        .id(sucursalId).nombre("Sucursal " + sucursalId++).franquicia(franquicia)
+                        .createdAt(ahora).updatedAt(ahora).version(0L)
+                        .build();
+                for (int p = 0; p < productosPorSucursal; p++) {
+                    Producto producto = Producto.builder()
+                            .id(productoId).nombre("Producto " + productoId)
+                            .stock((int) (productoId * 7919 % 500)).sucursal(sucursal)
+                            .createdAt(ahora).updatedAt(ahora).version(0L)
+                            .build();
+                    productoId++;
+                    sucursal.getProductos().add(producto);
+                    productos.add(producto);
+                }
+                franquicia.getSucursales().add(sucursal);
+                sucursales.add(sucursal);
+            }
+            franquicias.add(franquicia);
+        }
+
+        for (Sucursal sucursal : sucursales) {
+            sucursalesResumen.add(new SucursalResponseDTO(sucursal.getId(), sucursal.getNombre(),
+                    sucursal.getFranquicia().getId(), sucursal.getFranquicia().getNombre(),
+                    sucursal.getCreatedAt(), sucursal.getUpdatedAt(), sucursal.getVersion()));
+        }
+        for (Producto producto : productos) {
+            productosResumen.add(new ProductoResponseDTO(producto.getId(), producto.getNombre(), producto.getStock(),
+                    producto.getSucursal().getId(), producto.getSucursal().getNombre(),
+                    producto.getCreatedAt(), producto.getUpdatedAt(), producto.getVersion()));
+        }
+    }
+
+    /**
+     * Contexto Spring mínimo con los tres servicios reales. Los repositorios son stubs que devuelven
+     * las entidades de este catálogo y el resto de colaboradores, que las lecturas
+     * no usan, son mocks sin comportamiento. El ensamblado es secuencial: el paralelo se mide en
+     * EnsambladoBenchmark.
+     */
+    AnnotationConfigApplicationContext contexto() {
+        AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext();
+        contexto.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "app.franquicias.ensamblado.umbral", Integer.MAX_VALUE,
+                "app.franquicias.ensamblado.paralelismo", 1)));
+
+        FranquiciaRepository franquiciaRepository = stub(FranquiciaRepository.class);
+        when(franquiciaRepository.findAll()).thenReturn(franquicias);
+        when(franquiciaRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(franquicias);
+        SucursalRepository sucursalRepository = stub(SucursalRepository.class);
+        when(sucursalRepository.findAll()).thenReturn(sucursales);
+        when(sucursalRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(sucursales);
+        ProductoRepository productoRepository = stub(ProductoRepository.class);
+        when(productoRepository.findAll()).thenReturn(productos);
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(productos);
+
+        contexto.registerBean(FranquiciaRepository.class, () -> franquiciaRepository);
+        contexto.registerBean(SucursalRepository.class, () -> sucursalRepository);
+        contexto.registerBean(ProductoRepository.class, () -> productoRepository);
+        registrarMock(contexto, EntityManager.class);
+        registrarMock(contexto, ImportacionValidator.class);
+        registrarMock(contexto, CatalogoCache.class);
+        registrarMock(contexto, IndiceMayorStock.class);
+        registrarMock(contexto, AlertasStock.class);
+        registrarMock(contexto, InventarioFranquicias.class);
+        contexto.register(EnsambladorCatalogo.class, FranquiciaServiceImpl.class, SucursalServiceImpl.class,
+                ProductoServiceImpl.class);
+        contexto.refresh();
+        return contexto;
+    }
+
+    private static <T> void registrarMock(AnnotationConfigApplicationContext contexto, Class<T> tipo) {
+        T mock = stub(tipo);
+        contexto.registerBean(tipo, () -> mock);
+    }
+
+    // stubOnly: Mockito no guarda las invocaciones, que crecerían sin límite durante la medición
+    private static <T> T stub(Class<T> tipo) {
+        return mock(tipo, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,60 @@
+package com.DanielC.pruebatecnica.benchmark;
+
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.service.EnsambladorCatalogo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupación de productos en sus sucursales (detalle completo de franquicia) en el hilo
+ * llamante frente al ForkJoinPool del ensamblador. Sucursales = 100, productos = 100 × productosPorSucursal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnsambladoBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int productosPorSucursal;
+
+    @Param({"secuencial", "paralelo"})
+    public String modo;
+
+    private List<SucursalResponseDTO> sucursales;
+    private List<ProductoResponseDTO> productos;
+    private EnsambladorCatalogo ensamblador;
+
+    @Setup
+    public void preparar() {
+        CatalogoSintetico catalogo = new CatalogoSintetico(productosPorSucursal);
+        sucursales = catalogo.sucursalesResumen;
+        productos = catalogo.productosResumen;
+        ensamblador = modo.equals("paralelo")
+                ? new EnsambladorCatalogo(0, 0)
+                : new EnsambladorCatalogo(Integer.MAX_VALUE, 1);
+    }
+
+    @TearDown
+    public void liberar() {
+        ensamblador.detener();
+    }
+
+    @Benchmark
+    public List<SucursalResponseDTO> agruparProductos() {
+        ensamblador.agrupar(sucursales, SucursalResponseDTO::getId,
+                productos, ProductoResponseDTO::getSucursalId,
+                SucursalResponseDTO::setProductos);
+        return sucursales;
+    }
+}
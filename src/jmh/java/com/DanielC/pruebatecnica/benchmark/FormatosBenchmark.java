@@ -0,0 +1,115 @@
+package com.DanielC.pruebatecnica.benchmark;
+
+import com.DanielC.pruebatecnica.config.CatalogoProtobuf;
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.service.FranquiciaService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Codificación del catálogo completo (franquicia → sucursales → productos) y de un listado de
+ * productos en cada formato negociable, con y sin gzip. El tamaño resultante se publica como
+ * contador auxiliar (bytes) en el informe de JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormatosBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String formato;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private List<FranquiciaResponseDTO> franquicias;
+    private List<ProductoResponseDTO> productos;
+    private ObjectMapper mapper;
+
+    /**
+     * Tamaño en bytes de la codificación, publicado por JMH junto al tiempo (columna bytes). JMH
+     * suma los contadores EVENTS de todas las iteraciones de medida e hilos, así que cada uno
+     * guarda su parte y el resultado final es el tamaño de una codificación.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Tamano {
+        public double bytes;
+        private double fraccion;
+
+        @Setup(Level.Trial)
+        public void preparar(BenchmarkParams parametros) {
+            fraccion = 1.0 / ((double) parametros.getMeasurement().getCount() * parametros.getThreads());
+        }
+
+        byte[] registrar(byte[] codificado) {
+            bytes = codificado.length * fraccion;
+            return codificado;
+        }
+    }
+
+    @Setup
+    public void preparar() {
+        CatalogoSintetico catalogo = new CatalogoSintetico(10);
+        try (AnnotationConfigApplicationContext contexto = catalogo.contexto()) {
+            franquicias = contexto.getBean(FranquiciaService.class)
+                    .obtenerFranquiciasPaginadas(null, PaginaResponseDTO.LIMITE_MAXIMO).getItems();
+        }
+        productos = catalogo.productosResumen;
+        mapper = switch (formato) {
+            case "json" -> JsonMapper.builder().build();
+            case "cbor" -> CBORMapper.builder().build();
+            case "smile" -> SmileMapper.builder().build();
+            default -> null;
+        };
+    }
+
+    @Benchmark
+    public byte[] franquiciasCompletas(Tamano tamano) {
+        byte[] bytes = mapper != null
+                ? mapper.writeValueAsBytes(franquicias)
+                : CatalogoProtobuf.aMensaje(franquicias, FranquiciaResponseDTO.class).toByteArray();
+        return tamano.registrar(gzip ? comprimir(bytes) : bytes);
+    }
+
+    @Benchmark
+    public byte[] listadoProductos(Tamano tamano) {
+        byte[] bytes = mapper != null
+                ? mapper.writeValueAsBytes(productos)
+                : CatalogoProtobuf.aMensaje(productos, ProductoResponseDTO.class).toByteArray();
+        return tamano.registrar(gzip ? comprimir(bytes) : bytes);
+    }
+
+    private static byte[] comprimir(byte[] bytes) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+}
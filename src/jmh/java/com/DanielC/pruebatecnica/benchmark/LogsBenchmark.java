@@ -0,0 +1,83 @@
+package com.DanielC.pruebatecnica.benchmark;
+
+import com.DanielC.pruebatecnica.PruebaTecnicaApplication;
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de lecturas y escrituras de servicio con la configuración de logs por defecto
+ * (show-sql, SQL en DEBUG, parámetros en TRACE, una línea INFO por llamada) frente al perfil prod
+ * (JSON asíncrono, sin trazas SQL, DEBUG de servicios muestreado). La consola se redirige a
+ * build/logs-benchmark.log para medir la escritura real de cada línea sin volcarla en JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LogsBenchmark {
+
+    @Param({"default", "prod"})
+    public String perfil;
+
+    private PrintStream salidaOriginal;
+    private PrintStream salidaLogs;
+    private ConfigurableApplicationContext contexto;
+    private ProductoService productoService;
+    private long producto;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        salidaOriginal = System.out;
+        try {
+            salidaLogs = new PrintStream(new FileOutputStream("build/logs-benchmark.log", true), false);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.setOut(salidaLogs);
+        contexto = new SpringApplicationBuilder(PruebaTecnicaApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(perfil)
+                // Como argumentos para que prevalezcan sobre application.properties y logback-test.xml
+                .run("--logging.config=classpath:logback-spring.xml",
+                        "--spring.datasource.url=jdbc:h2:mem:logs;DB_CLOSE_DELAY=-1",
+                        "--app.r2dbc.url=r2dbc:h2:mem:///logs");
+        productoService = contexto.getBean(ProductoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+        System.setOut(salidaOriginal);
+        salidaLogs.close();
+    }
+
+    @Benchmark
+    public List<ProductoResponseDTO> productosPorSucursal() {
+        return productoService.obtenerProductosPorSucursal(1L);
+    }
+
+    @Benchmark
+    public ProductoResponseDTO ajustarStock() {
+        // Alterna +1 / -1 para que el stock no crezca sin límite
+        return productoService.ajustarStockProducto(1L, (producto++ & 1) == 0 ? 1 : -1);
+    }
+}
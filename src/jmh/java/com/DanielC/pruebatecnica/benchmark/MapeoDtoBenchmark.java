@@ -0,0 +1,73 @@
+package com.DanielC.pruebatecnica.benchmark;
+
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.service.FranquiciaService;
+import com.DanielC.pruebatecnica.service.ProductoService;
+import com.DanielC.pruebatecnica.service.SucursalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste del mapeo a DTOs de los tres servicios, sin base de datos: los servicios salen de un
+ * contexto Spring mínimo cuyos repositorios devuelven un catálogo ya cargado en memoria. Total de
+ * productos = 100 × productosPorSucursal. El listado GET /franquicias no pasa por DTOs: se mide
+ * en ServicioH2Benchmark (exportarFranquicias).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapeoDtoBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int productosPorSucursal;
+
+    private AnnotationConfigApplicationContext contexto;
+    private FranquiciaService franquiciaService;
+    private SucursalService sucursalService;
+    private ProductoService productoService;
+
+    @Setup
+    public void preparar() {
+        contexto = new CatalogoSintetico(productosPorSucursal).contexto();
+        franquiciaService = contexto.getBean(FranquiciaService.class);
+        sucursalService = contexto.getBean(SucursalService.class);
+        productoService = contexto.getBean(ProductoService.class);
+    }
+
+    @TearDown
+    public void liberar() {
+        contexto.close();
+    }
+
+    /**
+     * Árbol completo mapeado desde las entidades (mapToResponseDTO recorriendo sucursales y productos)
+     */
+    @Benchmark
+    public PaginaResponseDTO<FranquiciaResponseDTO> franquiciasCompletasEntidades() {
+        return franquiciaService.obtenerFranquiciasPaginadas(null, PaginaResponseDTO.LIMITE_MAXIMO);
+    }
+
+    @Benchmark
+    public List<SucursalResponseDTO> sucursales() {
+        return sucursalService.obtenerTodasLasSucursales();
+    }
+
+    @Benchmark
+    public List<ProductoResponseDTO> productos() {
+        return productoService.obtenerTodosLosProductos();
+    }
+}
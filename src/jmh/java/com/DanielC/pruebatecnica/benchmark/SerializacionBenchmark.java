@@ -0,0 +1,52 @@
+package com.DanielC.pruebatecnica.benchmark;
+
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
+import com.DanielC.pruebatecnica.service.FranquiciaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización Jackson de árboles FranquiciaResponseDTO completos (franquicia → sucursales → productos)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializacionBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int productosPorSucursal;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private List<FranquiciaResponseDTO> franquicias;
+
+    @Setup
+    public void preparar() {
+        CatalogoSintetico catalogo = new CatalogoSintetico(productosPorSucursal);
+        try (AnnotationConfigApplicationContext contexto = catalogo.contexto()) {
+            franquicias = contexto.getBean(FranquiciaService.class)
+                    .obtenerFranquiciasPaginadas(null, PaginaResponseDTO.LIMITE_MAXIMO).getItems();
+        }
+    }
+
+    @Benchmark
+    public byte[] franquiciasCompletas() {
+        return jsonMapper.writeValueAsBytes(franquicias);
+    }
+
+    @Benchmark
+    public byte[] unaFranquicia() {
+        return jsonMapper.writeValueAsBytes(franquicias.get(0));
+    }
+}
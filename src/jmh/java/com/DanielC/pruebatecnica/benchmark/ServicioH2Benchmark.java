@@ -0,0 +1,160 @@
+package com.DanielC.pruebatecnica.benchmark;
+
+import com.DanielC.pruebatecnica.PruebaTecnicaApplication;
+import com.DanielC.pruebatecnica.dto.FranquiciaExpand;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
+import com.DanielC.pruebatecnica.dto.ProductoMaxStockDTO;
+import com.DanielC.pruebatecnica.dto.ProductoRequestDTO;
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.dto.SucursalRequestDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.repository.ProductoRepository;
+import com.DanielC.pruebatecnica.service.ExportadorFranquicias;
+import com.DanielC.pruebatecnica.service.FranquiciaService;
+import com.DanielC.pruebatecnica.service.ProductoService;
+import com.DanielC.pruebatecnica.service.SucursalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Métodos de servicio de los listados e informes contra H2 en memoria, con el contexto Spring
+ * completo (sin servidor web). El listado de franquicias se mide con ExportadorFranquicias, que es
+ * lo que usa GET /franquicias. Además de los datos de prueba (db/datos) se cargan 100 sucursales en la
+ * franquicia 1 con {@code productos} productos repartidos entre ellas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServicioH2Benchmark {
+
+    private static final int SUCURSALES = 100;
+
+    @Param({"1000", "10000"})
+    public int productos;
+
+    private ConfigurableApplicationContext contexto;
+    private FranquiciaService franquiciaService;
+    private SucursalService sucursalService;
+    private ProductoService productoService;
+    private ProductoRepository productoRepository;
+    private ExportadorFranquicias exportadorFranquicias;
+
+    /**
+     * Nivel de expansión de los listados de franquicias
+     */
+    @State(Scope.Benchmark)
+    public static class Expansion {
+        @Param({"NONE", "SUCURSALES", "FULL"})
+        public FranquiciaExpand expand;
+    }
+
+    /**
+     * Destino de la exportación que descarta los bytes y solo los cuenta
+     */
+    static final class ContadorBytes extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(PruebaTecnicaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.DanielC=WARN")
+                .run();
+        franquiciaService = contexto.getBean(FranquiciaService.class);
+        sucursalService = contexto.getBean(SucursalService.class);
+        productoService = contexto.getBean(ProductoService.class);
+        productoRepository = contexto.getBean(ProductoRepository.class);
+        exportadorFranquicias = contexto.getBean(ExportadorFranquicias.class);
+
+        List<SucursalRequestDTO> sucursales = IntStream.range(0, SUCURSALES)
+                .mapToObj(i -> new SucursalRequestDTO("Sucursal benchmark " + i, 1L))
+                .collect(Collectors.toList());
+        List<Long> sucursalIds = sucursalService.crearSucursales(sucursales).getIds();
+
+        List<ProductoRequestDTO> lote = new ArrayList<>(productos);
+        for (int i = 0; i < productos; i++) {
+            lote.add(new ProductoRequestDTO("Producto benchmark " + i, i * 7919 % 500,
+                    sucursalIds.get(i % SUCURSALES)));
+        }
+        productoService.crearProductos(lote);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    /**
+     * GET /franquicias: el JSON transmitido por ExportadorFranquicias, escrito en un flujo que
+     * solo cuenta bytes para no medir la red ni un búfer que crece
+     */
+    @Benchmark
+    public long exportarFranquicias(Expansion expansion) {
+        ContadorBytes salida = new ContadorBytes();
+        exportadorFranquicias.exportar(expansion.expand, salida);
+        return salida.bytes;
+    }
+
+    @Benchmark
+    public List<SucursalResponseDTO> sucursales() {
+        return sucursalService.obtenerTodasLasSucursales();
+    }
+
+    @Benchmark
+    public List<ProductoResponseDTO> productos() {
+        return productoService.obtenerTodosLosProductos();
+    }
+
+    @Benchmark
+    public PaginaResponseDTO<ProductoResponseDTO> productosPaginados() {
+        return productoService.obtenerProductosPaginados(null, 100);
+    }
+
+    @Benchmark
+    public List<ProductoMaxStockDTO> mayorStockPorSucursalIndice() {
+        return franquiciaService.obtenerProductosConMayorStockPorSucursal(1L, 1);
+    }
+
+    @Benchmark
+    public List<ProductoMaxStockDTO> mayorStockPorSucursalSql() {
+        return productoRepository.findTopStockPorSucursalByFranquiciaId(1L, 1);
+    }
+
+    @Benchmark
+    public List<ProductoMaxStockDTO> topFranquiciaIndice() {
+        return franquiciaService.obtenerProductosConMayorStock(1L, 10);
+    }
+}
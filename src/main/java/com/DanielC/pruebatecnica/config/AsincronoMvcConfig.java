@@ -0,0 +1,48 @@
+package com.DanielC.pruebatecnica.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Ejecutor de las respuestas asíncronas de MVC: los Flux de /api/v1/reactivo y el
+ * StreamingResponseBody de GET /franquicias.
+ * <p>
+ * Bajo MVC cada respuesta en curso ocupa un hilo de este pool mientras escribe en el socket con
+ * E/S bloqueante del servlet, y r2dbc-h2 además ejecuta la consulta en ese mismo hilo. El pool es
+ * por tanto el límite de respuestas transmitidas a la vez, también con hilos virtuales: cada una
+ * retiene una conexión, así que hilos debe quedar por debajo de los pools de Hikari y R2DBC.
+ * Las que no caben esperan en la cola hasta spring.mvc.async.request-timeout, que responde 503.
+ * La cola no se acota: un Flux programa un envío por cada tanda de elementos, y si el ejecutor
+ * rechaza uno a mitad de respuesta MVC cancela la suscripción sin cerrar la respuesta.
+ * <p>
+ * El ejecutor no se publica como bean para no sustituir al applicationTaskExecutor de Spring Boot.
+ */
+@Configuration
+@Slf4j
+public class AsincronoMvcConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor ejecutor = new ThreadPoolTaskExecutor();
+
+    public AsincronoMvcConfig(@Value("${app.mvc.async.hilos:8}") int hilos) {
+        ejecutor.setCorePoolSize(hilos);
+        ejecutor.setMaxPoolSize(hilos);
+        ejecutor.setThreadNamePrefix("mvc-async-");
+        ejecutor.initialize();
+        log.info("Respuestas asíncronas de MVC: {} hilos", hilos);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(ejecutor);
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdown();
+    }
+}
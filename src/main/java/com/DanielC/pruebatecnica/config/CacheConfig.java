@@ -0,0 +1,72 @@
+package com.DanielC.pruebatecnica.config;
+
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cachés Caffeine para las lecturas por id, con TTL y tamaño máximo independientes por entidad.
+ * El tamaño se mide en elementos del árbol de DTOs (franquicia, sucursales y productos), no en
+ * entradas: una franquicia con expand=full pesa tanto como todos sus productos.
+ * Las invalidaciones se aplican tras el commit de la transacción que modifica los datos.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String FRANQUICIAS = "franquicias";
+    public static final String SUCURSALES = "sucursales";
+    public static final String PRODUCTOS = "productos";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.franquicias.ttl-seconds:300}") long franquiciasTtl,
+            @Value("${app.cache.franquicias.max-elementos:100000}") long franquiciasMax,
+            @Value("${app.cache.sucursales.ttl-seconds:120}") long sucursalesTtl,
+            @Value("${app.cache.sucursales.max-elementos:100000}") long sucursalesMax,
+            @Value("${app.cache.productos.ttl-seconds:60}") long productosTtl,
+            @Value("${app.cache.productos.max-elementos:20000}") long productosMax) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                crearCache(FRANQUICIAS, franquiciasTtl, franquiciasMax),
+                crearCache(SUCURSALES, sucursalesTtl, sucursalesMax),
+                crearCache(PRODUCTOS, productosTtl, productosMax)));
+        return cacheManager;
+    }
+
+    private Cache crearCache(String nombre, long ttlSegundos, long maxElementos) {
+        return new TransactionAwareCacheDecorator(new CaffeineCache(nombre, Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .maximumWeight(maxElementos)
+                .weigher((Object clave, Object valor) -> peso(valor))
+                .recordStats()
+                .build()));
+    }
+
+    /**
+     * Elementos del árbol de DTOs cacheado; una entrada más pesada que el máximo no llega a quedarse
+     */
+    static int peso(Object valor) {
+        long elementos = 1;
+        if (valor instanceof FranquiciaResponseDTO franquicia && franquicia.getSucursales() != null) {
+            for (SucursalResponseDTO sucursal : franquicia.getSucursales()) {
+                elementos += peso(sucursal);
+            }
+        } else if (valor instanceof SucursalResponseDTO sucursal && sucursal.getProductos() != null) {
+            elementos += sucursal.getProductos().size();
+        }
+        return (int) Math.min(elementos, Integer.MAX_VALUE);
+    }
+}
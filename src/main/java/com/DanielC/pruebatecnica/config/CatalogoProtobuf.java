@@ -0,0 +1,160 @@
+package com.DanielC.pruebatecnica.config;
+
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.proto.Franquicia;
+import com.DanielC.pruebatecnica.proto.FranquiciaLista;
+import com.DanielC.pruebatecnica.proto.Producto;
+import com.DanielC.pruebatecnica.proto.ProductoLista;
+import com.DanielC.pruebatecnica.proto.Sucursal;
+import com.DanielC.pruebatecnica.proto.SucursalLista;
+import com.google.protobuf.Message;
+import com.google.protobuf.Timestamp;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Conversión de los DTO de respuesta a los mensajes generados desde src/main/proto/catalogo.proto.
+ * Los campos null se omiten (quedan con el valor por defecto de Protobuf).
+ */
+public final class CatalogoProtobuf {
+
+    private CatalogoProtobuf() {
+    }
+
+    /**
+     * Indica si el tipo (o el elemento de la lista) tiene mensaje Protobuf
+     */
+    public static boolean soporta(Class<?> tipo) {
+        return tipo == FranquiciaResponseDTO.class || tipo == SucursalResponseDTO.class
+                || tipo == ProductoResponseDTO.class;
+    }
+
+    public static Message aMensaje(Object valor) {
+        if (valor instanceof FranquiciaResponseDTO franquicia) {
+            return franquicia(franquicia);
+        }
+        if (valor instanceof SucursalResponseDTO sucursal) {
+            return sucursal(sucursal);
+        }
+        if (valor instanceof ProductoResponseDTO producto) {
+            return producto(producto);
+        }
+        throw new IllegalArgumentException("Tipo sin mensaje Protobuf: " + valor.getClass().getName());
+    }
+
+    /**
+     * Envuelve un listado en su mensaje *Lista; el tipo de elemento se necesita para las listas vacías
+     */
+    public static Message aMensaje(List<?> valores, Class<?> elemento) {
+        if (elemento == FranquiciaResponseDTO.class) {
+            FranquiciaLista.Builder lista = FranquiciaLista.newBuilder();
+            valores.forEach(valor -> lista.addFranquicias(franquicia((FranquiciaResponseDTO) valor)));
+            return lista.build();
+        }
+        if (elemento == SucursalResponseDTO.class) {
+            SucursalLista.Builder lista = SucursalLista.newBuilder();
+            valores.forEach(valor -> lista.addSucursales(sucursal((SucursalResponseDTO) valor)));
+            return lista.build();
+        }
+        if (elemento == ProductoResponseDTO.class) {
+            ProductoLista.Builder lista = ProductoLista.newBuilder();
+            valores.forEach(valor -> lista.addProductos(producto((ProductoResponseDTO) valor)));
+            return lista.build();
+        }
+        throw new IllegalArgumentException("Tipo sin mensaje Protobuf: " + elemento.getName());
+    }
+
+    public static Franquicia franquicia(FranquiciaResponseDTO dto) {
+        Franquicia.Builder builder = Franquicia.newBuilder();
+        if (dto.getId() != null) {
+            builder.setId(dto.getId());
+        }
+        if (dto.getNombre() != null) {
+            builder.setNombre(dto.getNombre());
+        }
+        if (dto.getSucursales() != null) {
+            dto.getSucursales().forEach(sucursal -> builder.addSucursales(sucursal(sucursal)));
+        }
+        if (dto.getCreatedAt() != null) {
+            builder.setCreatedAt(timestamp(dto.getCreatedAt()));
+        }
+        if (dto.getUpdatedAt() != null) {
+            builder.setUpdatedAt(timestamp(dto.getUpdatedAt()));
+        }
+        if (dto.getVersion() != null) {
+            builder.setVersion(dto.getVersion());
+        }
+        return builder.build();
+    }
+
+    public static Sucursal sucursal(SucursalResponseDTO dto) {
+        Sucursal.Builder builder = Sucursal.newBuilder();
+        if (dto.getId() != null) {
+            builder.setId(dto.getId());
+        }
+        if (dto.getNombre() != null) {
+            builder.setNombre(dto.getNombre());
+        }
+        if (dto.getFranquiciaId() != null) {
+            builder.setFranquiciaId(dto.getFranquiciaId());
+        }
+        if (dto.getFranquiciaNombre() != null) {
+            builder.setFranquiciaNombre(dto.getFranquiciaNombre());
+        }
+        if (dto.getProductos() != null) {
+            dto.getProductos().forEach(producto -> builder.addProductos(producto(producto)));
+        }
+        if (dto.getCreatedAt() != null) {
+            builder.setCreatedAt(timestamp(dto.getCreatedAt()));
+        }
+        if (dto.getUpdatedAt() != null) {
+            builder.setUpdatedAt(timestamp(dto.getUpdatedAt()));
+        }
+        if (dto.getVersion() != null) {
+            builder.setVersion(dto.getVersion());
+        }
+        return builder.build();
+    }
+
+    public static Producto producto(ProductoResponseDTO dto) {
+        Producto.Builder builder = Producto.newBuilder();
+        if (dto.getId() != null) {
+            builder.setId(dto.getId());
+        }
+        if (dto.getNombre() != null) {
+            builder.setNombre(dto.getNombre());
+        }
+        if (dto.getStock() != null) {
+            builder.setStock(dto.getStock());
+        }
+        if (dto.getSucursalId() != null) {
+            builder.setSucursalId(dto.getSucursalId());
+        }
+        if (dto.getSucursalNombre() != null) {
+            builder.setSucursalNombre(dto.getSucursalNombre());
+        }
+        if (dto.getCreatedAt() != null) {
+            builder.setCreatedAt(timestamp(dto.getCreatedAt()));
+        }
+        if (dto.getUpdatedAt() != null) {
+            builder.setUpdatedAt(timestamp(dto.getUpdatedAt()));
+        }
+        if (dto.getVersion() != null) {
+            builder.setVersion(dto.getVersion());
+        }
+        return builder.build();
+    }
+
+    private static Timestamp timestamp(LocalDateTime fecha) {
+        Instant instante = fecha.atZone(ZoneId.systemDefault()).toInstant();
+        return Timestamp.newBuilder()
+                .setSeconds(instante.getEpochSecond())
+                .setNanos(instante.getNano())
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.DanielC.pruebatecnica.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Formatos de respuesta adicionales a JSON. CBOR y Smile los registra Spring al encontrar sus
+ * módulos Jackson; Protobuf se registra aquí. JSON sigue siendo el formato por defecto
+ * (ver JsonPorDefectoStrategy).
+ */
+@Configuration
+public class FormatosConfig implements WebMvcConfigurer {
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.addCustomConverter(new ProtobufCatalogoHttpMessageConverter());
+    }
+
+    @Override
+    public void configureContentNegotiation(ContentNegotiationConfigurer configurer) {
+        configurer.strategies(List.of(new JsonPorDefectoStrategy()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.DanielC.pruebatecnica.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Perfil hilos-virtuales: avisa si la JVM no soporta hilos virtuales
+ */
+@Configuration
+@Profile("hilos-virtuales")
+@Slf4j
+public class HilosVirtualesConfig {
+
+    private static final int VERSION_MINIMA = 21;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void comprobarVersion() {
+        int version = Runtime.version().feature();
+        if (version < VERSION_MINIMA) {
+            log.warn("Perfil hilos-virtuales activo con Java {}: se necesita Java {}+, se usan hilos de plataforma",
+                    version, VERSION_MINIMA);
+        } else {
+            log.info("Peticiones atendidas con hilos virtuales (Java {})", version);
+        }
+    }
+}
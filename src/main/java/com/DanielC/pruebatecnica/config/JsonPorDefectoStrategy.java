@@ -0,0 +1,34 @@
+package com.DanielC.pruebatecnica.config;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationStrategy;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lee el encabezado Accept y antepone application/json a cada comodín (*&#47;* o application/*)
+ * con la misma calidad. Así un cliente sin Accept, con *&#47;* o un navegador recibe JSON aunque
+ * haya convertidores binarios registrados antes que el de JSON; CBOR, Smile y Protobuf solo se
+ * usan cuando se piden explícitamente.
+ */
+class JsonPorDefectoStrategy implements ContentNegotiationStrategy {
+
+    private final HeaderContentNegotiationStrategy encabezado = new HeaderContentNegotiationStrategy();
+
+    @Override
+    public List<MediaType> resolveMediaTypes(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> aceptados = encabezado.resolveMediaTypes(request);
+        List<MediaType> resultado = new ArrayList<>(aceptados.size() + 1);
+        for (MediaType tipo : aceptados) {
+            if (tipo.isWildcardType() || (tipo.isWildcardSubtype() && tipo.getType().equals("application"))) {
+                resultado.add(MediaType.APPLICATION_JSON.copyQualityValue(tipo));
+            }
+            resultado.add(tipo);
+        }
+        return resultado;
+    }
+}
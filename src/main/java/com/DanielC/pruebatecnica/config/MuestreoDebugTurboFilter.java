@@ -0,0 +1,40 @@
+package com.DanielC.pruebatecnica.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtro de logback que deja pasar uno de cada cadaN mensajes DEBUG y TRACE de los loggers de un
+ * paquete (configurado en logback-spring.xml para el perfil prod). Solo cuenta los mensajes que
+ * el nivel del logger dejaría escribir; las comprobaciones isDebugEnabled() y los niveles INFO y
+ * superiores no se filtran.
+ */
+public class MuestreoDebugTurboFilter extends TurboFilter {
+
+    private final AtomicLong contador = new AtomicLong();
+    private String paquete = "";
+    private int cadaN = 1;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (cadaN <= 1 || format == null || level.isGreaterOrEqual(Level.INFO)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())
+                || !logger.getName().startsWith(paquete)) {
+            return FilterReply.NEUTRAL;
+        }
+        return contador.getAndIncrement() % cadaN == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setPaquete(String paquete) {
+        this.paquete = paquete;
+    }
+
+    public void setCadaN(int cadaN) {
+        this.cadaN = cadaN;
+    }
+}
@@ -0,0 +1,70 @@
+package com.DanielC.pruebatecnica.config;
+
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractSmartHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escribe los DTO de respuesta (y listas de ellos) como Protobuf cuando el cliente envía
+ * Accept: application/x-protobuf. Solo escritura: las peticiones siguen siendo JSON.
+ */
+public class ProtobufCatalogoHttpMessageConverter extends AbstractSmartHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public ProtobufCatalogoHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CatalogoProtobuf.soporta(clazz);
+    }
+
+    @Override
+    public boolean canRead(ResolvableType type, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType targetType, Class<?> valueClass, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (List.class.isAssignableFrom(valueClass)) {
+            // Al elegir el formato Spring pasa el tipo declarado (List<ProductoResponseDTO>); al
+            // escribir solo la clase del valor (ArrayList<?>), ya validada en la primera llamada
+            Class<?> elemento = targetType.asCollection().resolveGeneric(0);
+            return elemento == null || CatalogoProtobuf.soporta(elemento);
+        }
+        return CatalogoProtobuf.soporta(valueClass);
+    }
+
+    @Override
+    protected void writeInternal(Object valor, ResolvableType type, HttpOutputMessage outputMessage,
+                                 Map<String, Object> hints) throws IOException {
+        if (valor instanceof List<?> lista) {
+            Class<?> elemento = type.asCollection().resolveGeneric(0);
+            if (elemento == null) {
+                // Una lista vacía se codifica igual (cero bytes) con cualquiera de los mensajes *Lista
+                elemento = lista.isEmpty() ? ProductoResponseDTO.class : lista.get(0).getClass();
+            }
+            CatalogoProtobuf.aMensaje(lista, elemento).writeTo(outputMessage.getBody());
+        } else {
+            CatalogoProtobuf.aMensaje(valor).writeTo(outputMessage.getBody());
+        }
+    }
+
+    @Override
+    public Object read(ResolvableType type, HttpInputMessage inputMessage, Map<String, Object> hints) {
+        throw new HttpMessageNotReadableException("Protobuf solo se admite en respuestas", inputMessage);
+    }
+}
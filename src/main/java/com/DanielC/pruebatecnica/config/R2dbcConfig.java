@@ -0,0 +1,67 @@
+package com.DanielC.pruebatecnica.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * Configuración R2DBC para las lecturas reactivas.
+ * El pool no se publica como bean: un ConnectionFactory en el contexto haría que Spring Boot
+ * dejara de configurar el DataSource JDBC que usan JPA y las escrituras.
+ */
+@Configuration
+@Slf4j
+public class R2dbcConfig {
+
+    @Value("${app.r2dbc.url}")
+    private String url;
+
+    @Value("${app.r2dbc.username}")
+    private String username;
+
+    @Value("${app.r2dbc.password}")
+    private String password;
+
+    @Value("${app.r2dbc.pool.initial-size:2}")
+    private int initialSize;
+
+    @Value("${app.r2dbc.pool.max-size:10}")
+    private int maxSize;
+
+    @Value("${app.r2dbc.pool.max-idle-seconds:1800}")
+    private long maxIdleSeconds;
+
+    private ConnectionPool pool;
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        ConnectionPoolConfiguration configuracion = ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                        .option(ConnectionFactoryOptions.USER, username)
+                        .option(ConnectionFactoryOptions.PASSWORD, password)
+                        .build()))
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                .build();
+        pool = new ConnectionPool(configuracion);
+        log.info("Pool R2DBC configurado: {} (máximo {} conexiones)", url, maxSize);
+        return DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void cerrarPool() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.DanielC.pruebatecnica.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.resilience.annotation.EnableResilientMethods;
+
+/**
+ * Habilita los reintentos declarativos (@Retryable) en los servicios
+ */
+@Configuration
+@EnableResilientMethods
+public class ResilienceConfig {
+}
@@ -0,0 +1,78 @@
+package com.DanielC.pruebatecnica.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Métrica http.server.requests.sql: sentencias SQL emitidas por petición, por plantilla de uri y
+ * resultado. Un aumento en una ruta delata consultas N+1 en producción; el máximo por método de
+ * lectura lo comprueba SentenciasLecturaTest.
+ * <p>
+ * Se cuenta en el hilo de la petición: lo que se ejecuta después en el ejecutor asíncrono de MVC
+ * (GET /franquicias transmitido, /api/v1/reactivo) no entra en el conteo.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class SentenciasPorPeticionConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    @Order(0)
+    public HibernatePropertiesCustomizer contadorSentenciasCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorSentencias());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                ContadorSentencias.iniciar();
+                return true;
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                                       Object handler) {
+                // El hilo vuelve al pool de Tomcat: lo que ejecute después no es de esta petición
+                ContadorSentencias.finalizar();
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                        Object handler, Exception ex) {
+                int sentencias = ContadorSentencias.finalizar();
+                log.debug("{} {} - {} sentencias SQL", request.getMethod(), request.getRequestURI(), sentencias);
+                Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                DistributionSummary.builder("http.server.requests.sql")
+                        .description("Sentencias SQL emitidas por petición")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri != null ? uri.toString() : "UNKNOWN")
+                        .tag("outcome", resultado(response.getStatus()))
+                        .register(meterRegistry)
+                        .record(sentencias);
+            }
+        }).addPathPatterns("/api/**");
+    }
+
+    private static String resultado(int status) {
+        HttpStatus.Series serie = HttpStatus.Series.resolve(status);
+        return serie != null ? serie.name() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,47 @@
+package com.DanielC.pruebatecnica.controller;
+
+import com.DanielC.pruebatecnica.service.AlertasStock;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controlador REST para las alertas de bajo stock (server-sent events)
+ */
+@RestController
+@RequestMapping("/api/v1/alertas/stock")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Alertas de stock", description = "Cruces del umbral de bajo stock en tiempo real")
+public class AlertaStockController {
+
+    private final AlertasStock alertasStock;
+
+    @Operation(summary = "Suscribirse a alertas de stock",
+            description = "Flujo SSE con un evento BAJO_STOCK o REPUESTO cada vez que un cambio de stock cruza "
+                    + "el umbral de la sucursal. Con Last-Event-ID se reenvían las alertas posteriores que "
+                    + "sigan en memoria; un evento alertas-perdidas indica cuántas se descartaron")
+    @ApiResponse(responseCode = "200", description = "Suscripción abierta")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribir(
+            @Parameter(description = "Solo alertas de las sucursales de esta franquicia")
+            @RequestParam(required = false) Long franquiciaId,
+            @Parameter(description = "Solo alertas de esta sucursal")
+            @RequestParam(required = false) Long sucursalId,
+            @Parameter(description = "Última alerta recibida antes de reconectar")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoId) {
+        log.info("GET /api/v1/alertas/stock?franquiciaId={}&sucursalId={} - Suscripción a alertas de stock",
+                franquiciaId, sucursalId);
+        return alertasStock.suscribir(franquiciaId, sucursalId, ultimoId);
+    }
+}
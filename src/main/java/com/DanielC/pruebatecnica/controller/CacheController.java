@@ -0,0 +1,37 @@
+package com.DanielC.pruebatecnica.controller;
+
+import com.DanielC.pruebatecnica.dto.CacheEstadisticasDTO;
+import com.DanielC.pruebatecnica.service.CatalogoCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador REST con las estadísticas de las cachés de lectura
+ */
+@RestController
+@RequestMapping("/api/v1/cache")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Caché", description = "Estadísticas de las cachés de lectura")
+public class CacheController {
+
+    private final CatalogoCache catalogoCache;
+
+    @Operation(summary = "Estadísticas de caché",
+            description = "Devuelve tamaño, hits, misses, hit rate y evictions de cada caché de lectura por id")
+    @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente")
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<CacheEstadisticasDTO>> obtenerEstadisticas() {
+        log.info("GET /api/v1/cache/estadisticas - Obtener estadísticas de caché");
+        return ResponseEntity.ok(catalogoCache.obtenerEstadisticas());
+    }
+}
@@ -0,0 +1,139 @@
+package com.DanielC.pruebatecnica.controller;
+
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.exception.FranquiciaNotFoundException;
+import com.DanielC.pruebatecnica.exception.ProductoNotFoundException;
+import com.DanielC.pruebatecnica.exception.SucursalNotFoundException;
+import com.DanielC.pruebatecnica.repository.CatalogoReactivoRepository;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controlador REST de solo lectura respaldado por R2DBC.
+ * Los listados se emiten como NDJSON a medida que llegan las filas (con contrapresión).
+ * Bajo MVC la escritura es E/S bloqueante del servlet: cada listado en curso ocupa un hilo del
+ * ejecutor asíncrono (ver AsincronoMvcConfig), y con r2dbc-h2 la consulta también corre en él.
+ * Con Accept: application/json se devuelve un arreglo JSON completo.
+ */
+@RestController
+@RequestMapping("/api/v1/reactivo")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Lecturas reactivas", description = "API de solo lectura sobre R2DBC servida por Spring MVC. " +
+        "Cada listado en curso ocupa un hilo del ejecutor asíncrono (app.mvc.async.hilos, 8 por defecto) " +
+        "con escritura bloqueante; los demás esperan en cola y reciben 503 si no empiezan en 30 s")
+public class CatalogoReactivoController {
+
+    private final CatalogoReactivoRepository catalogoReactivoRepository;
+
+    @Operation(summary = "Listar franquicias", description = "Emite todas las franquicias, sin sucursales")
+    @GetMapping(value = "/franquicias", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<FranquiciaResponseDTO> listarFranquicias() {
+        log.info("GET /api/v1/reactivo/franquicias - Listar franquicias");
+        return catalogoReactivoRepository.findAllFranquicias();
+    }
+
+    @Operation(summary = "Obtener franquicia por ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Franquicia encontrada"),
+            @ApiResponse(responseCode = "404", description = "Franquicia no encontrada")
+    })
+    @GetMapping(value = "/franquicias/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<FranquiciaResponseDTO> obtenerFranquicia(
+            @Parameter(description = "ID de la franquicia", required = true)
+            @PathVariable Long id) {
+        log.info("GET /api/v1/reactivo/franquicias/{} - Obtener franquicia", id);
+        return catalogoReactivoRepository.findFranquiciaById(id)
+                .switchIfEmpty(Mono.error(() -> new FranquiciaNotFoundException(id)));
+    }
+
+    @Operation(summary = "Listar sucursales de una franquicia")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sucursales de la franquicia"),
+            @ApiResponse(responseCode = "404", description = "Franquicia no encontrada")
+    })
+    @GetMapping(value = "/franquicias/{id}/sucursales",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<SucursalResponseDTO> listarSucursalesDeFranquicia(
+            @Parameter(description = "ID de la franquicia", required = true)
+            @PathVariable Long id) {
+        log.info("GET /api/v1/reactivo/franquicias/{}/sucursales - Listar sucursales", id);
+        return catalogoReactivoRepository.existsFranquiciaById(id)
+                .flatMapMany(existe -> existe
+                        ? catalogoReactivoRepository.findSucursalesByFranquiciaId(id)
+                        : Flux.error(new FranquiciaNotFoundException(id)));
+    }
+
+    @Operation(summary = "Listar sucursales", description = "Emite todas las sucursales, sin productos")
+    @GetMapping(value = "/sucursales", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<SucursalResponseDTO> listarSucursales() {
+        log.info("GET /api/v1/reactivo/sucursales - Listar sucursales");
+        return catalogoReactivoRepository.findAllSucursales();
+    }
+
+    @Operation(summary = "Obtener sucursal por ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sucursal encontrada"),
+            @ApiResponse(responseCode = "404", description = "Sucursal no encontrada")
+    })
+    @GetMapping(value = "/sucursales/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<SucursalResponseDTO> obtenerSucursal(
+            @Parameter(description = "ID de la sucursal", required = true)
+            @PathVariable Long id) {
+        log.info("GET /api/v1/reactivo/sucursales/{} - Obtener sucursal", id);
+        return catalogoReactivoRepository.findSucursalById(id)
+                .switchIfEmpty(Mono.error(() -> new SucursalNotFoundException(id)));
+    }
+
+    @Operation(summary = "Listar productos de una sucursal")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Productos de la sucursal"),
+            @ApiResponse(responseCode = "404", description = "Sucursal no encontrada")
+    })
+    @GetMapping(value = "/sucursales/{id}/productos",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<ProductoResponseDTO> listarProductosDeSucursal(
+            @Parameter(description = "ID de la sucursal", required = true)
+            @PathVariable Long id) {
+        log.info("GET /api/v1/reactivo/sucursales/{}/productos - Listar productos", id);
+        return catalogoReactivoRepository.existsSucursalById(id)
+                .flatMapMany(existe -> existe
+                        ? catalogoReactivoRepository.findProductosBySucursalId(id)
+                        : Flux.error(new SucursalNotFoundException(id)));
+    }
+
+    @Operation(summary = "Listar productos", description = "Emite todos los productos")
+    @GetMapping(value = "/productos", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<ProductoResponseDTO> listarProductos() {
+        log.info("GET /api/v1/reactivo/productos - Listar productos");
+        return catalogoReactivoRepository.findAllProductos();
+    }
+
+    @Operation(summary = "Obtener producto por ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Producto encontrado"),
+            @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+    })
+    @GetMapping(value = "/productos/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ProductoResponseDTO> obtenerProducto(
+            @Parameter(description = "ID del producto", required = true)
+            @PathVariable Long id) {
+        log.info("GET /api/v1/reactivo/productos/{} - Obtener producto", id);
+        return catalogoReactivoRepository.findProductoById(id)
+                .switchIfEmpty(Mono.error(() -> new ProductoNotFoundException(id)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.DanielC.pruebatecnica.controller;
+
+import com.DanielC.pruebatecnica.config.ProtobufCatalogoHttpMessageConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato en que se escribirá un DTO según el encabezado Accept, antes de que MVC elija el
+ * convertidor. JSON, CBOR, Smile y Protobuf son representaciones distintas del mismo estado, así
+ * que el formato forma parte del ETag. Repite la elección de MVC: tipos aceptados compatibles con
+ * los formatos, ordenados por calidad y especificidad, y el primero concreto.
+ */
+@Component
+@RequiredArgsConstructor
+class FormatoNegociado {
+
+    private static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+    private static final List<MediaType> FORMATOS = List.of(JSON, MediaType.APPLICATION_CBOR,
+            new MediaType("application", "x-jackson-smile"), ProtobufCatalogoHttpMessageConverter.PROTOBUF);
+
+    // Se resuelve al usarse: los contextos sin servidor web (benchmarks) no registran el de MVC
+    private final ObjectProvider<ContentNegotiationManager> contentNegotiationManager;
+
+    /**
+     * Subtipo del formato negociado (json, cbor, x-jackson-smile o x-protobuf). Si ninguno es
+     * aceptable se devuelve json: MVC responderá 406 sin usar el ETag.
+     */
+    String de(NativeWebRequest request) {
+        List<MediaType> aceptados;
+        try {
+            aceptados = contentNegotiationManager.getObject().resolveMediaTypes(request);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return JSON.getSubtype();
+        }
+        List<MediaType> compatibles = new ArrayList<>();
+        for (MediaType aceptado : aceptados) {
+            for (MediaType formato : FORMATOS) {
+                if (aceptado.isCompatibleWith(formato)) {
+                    MediaType conCalidad = formato.copyQualityValue(aceptado);
+                    compatibles.add(aceptado.isLessSpecific(conCalidad) ? conCalidad : aceptado);
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatibles);
+        for (MediaType tipo : compatibles) {
+            if (tipo.isConcrete()) {
+                return tipo.getSubtype();
+            }
+        }
+        return JSON.getSubtype();
+    }
+}
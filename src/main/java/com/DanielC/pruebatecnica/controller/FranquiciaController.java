@@ -1,11 +1,18 @@
 package com.DanielC.pruebatecnica.controller;
 
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.FranquiciaExpand;
 import com.DanielC.pruebatecnica.dto.FranquiciaRequestDTO;
 import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.InventarioResumenDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
 import com.DanielC.pruebatecnica.dto.ProductoMaxStockDTO;
+import com.DanielC.pruebatecnica.dto.RefrescoInventario;
+import com.DanielC.pruebatecnica.service.ExportadorFranquicias;
 import com.DanielC.pruebatecnica.service.FranquiciaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,9 +21,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -31,6 +42,8 @@ import java.util.List;
 public class FranquiciaController {
 
     private final FranquiciaService franquiciaService;
+    private final ExportadorFranquicias exportadorFranquicias;
+    private final FormatoNegociado formatoNegociado;
 
     @Operation(summary = "Crear una nueva franquicia", description = "Crea una nueva franquicia en el sistema")
     @ApiResponses(value = {
@@ -51,26 +64,81 @@ public class FranquiciaController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Franquicia encontrada",
                     content = @Content(schema = @Schema(implementation = FranquiciaResponseDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag o la fecha enviados",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "Valor de expand inválido",
+                    content = @Content),
             @ApiResponse(responseCode = "404", description = "Franquicia no encontrada",
                     content = @Content)
     })
     @GetMapping("/{id}")
     public ResponseEntity<FranquiciaResponseDTO> obtenerFranquiciaPorId(
             @Parameter(description = "ID de la franquicia", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "Nivel de detalle: none, sucursales o full")
+            @RequestParam(required = false, defaultValue = "full") String expand,
+            NativeWebRequest request) {
         log.info("GET /api/v1/franquicias/{} - Obtener franquicia por ID", id);
-        FranquiciaResponseDTO response = franquiciaService.obtenerFranquiciaPorId(id);
-        return ResponseEntity.ok(response);
+        FranquiciaExpand nivel = FranquiciaExpand.from(expand);
+        EstadoAgregadoDTO estado = franquiciaService.obtenerEstadoFranquicia(id, nivel);
+        String etag = VersionEtag.etag(estado, nivel.name(), formatoNegociado.de(request));
+        long ultimaModificacion = VersionEtag.ultimaModificacion(estado);
+        if (request.checkNotModified(etag, ultimaModificacion)) {
+            return null;
+        }
+        FranquiciaResponseDTO response = franquiciaService.obtenerFranquiciaPorId(id, nivel);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(ultimaModificacion)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(response);
     }
 
-    @Operation(summary = "Obtener todas las franquicias", description = "Obtiene la lista completa de franquicias")
+    @Operation(summary = "Obtener todas las franquicias",
+            description = "Obtiene la lista completa de franquicias. La respuesta se transmite a medida que " +
+                    "se leen las filas, sin cargar el catálogo completo en memoria")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de franquicias obtenida exitosamente")
+            @ApiResponse(responseCode = "200", description = "Lista de franquicias obtenida exitosamente",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = FranquiciaResponseDTO.class)))),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag o la fecha enviados"),
+            @ApiResponse(responseCode = "400", description = "Valor de expand inválido")
     })
     @GetMapping
-    public ResponseEntity<List<FranquiciaResponseDTO>> obtenerTodasLasFranquicias() {
+    public ResponseEntity<StreamingResponseBody> obtenerTodasLasFranquicias(
+            @Parameter(description = "Nivel de detalle: none, sucursales o full")
+            @RequestParam(required = false, defaultValue = "full") String expand,
+            NativeWebRequest request) {
         log.info("GET /api/v1/franquicias - Obtener todas las franquicias");
-        List<FranquiciaResponseDTO> response = franquiciaService.obtenerTodasLasFranquicias();
+        FranquiciaExpand nivel = FranquiciaExpand.from(expand);
+        EstadoAgregadoDTO estado = franquiciaService.obtenerEstadoFranquicias(nivel);
+        String etag = VersionEtag.etagListado(estado, nivel.name(), MediaType.APPLICATION_JSON.getSubtype());
+        long ultimaModificacion = VersionEtag.ultimaModificacion(estado);
+        if (request.checkNotModified(etag, ultimaModificacion)) {
+            return null;
+        }
+        // checkNotModified ya escribió ETag y Last-Modified en la respuesta; el manejador de
+        // StreamingResponseBody los duplicaría si se repiten aquí
+        StreamingResponseBody body = outputStream -> exportadorFranquicias.exportar(nivel, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    @Operation(summary = "Obtener franquicias paginadas",
+            description = "Obtiene una página de franquicias ordenadas por ID usando paginación por cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de franquicias obtenida exitosamente")
+    })
+    @GetMapping(params = "limit")
+    public ResponseEntity<PaginaResponseDTO<FranquiciaResponseDTO>> obtenerFranquiciasPaginadas(
+            @Parameter(description = "Cantidad máxima de franquicias (máximo " + PaginaResponseDTO.LIMITE_MAXIMO + ")")
+            @RequestParam int limit,
+            @Parameter(description = "Cursor: ID de la última franquicia de la página anterior")
+            @RequestParam(required = false) Long after) {
+        log.info("GET /api/v1/franquicias?limit={}&after={} - Obtener franquicias paginadas", limit, after);
+        PaginaResponseDTO<FranquiciaResponseDTO> response = franquiciaService.obtenerFranquiciasPaginadas(after, limit);
         return ResponseEntity.ok(response);
     }
 
@@ -78,16 +146,24 @@ public class FranquiciaController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Franquicia actualizada exitosamente"),
             @ApiResponse(responseCode = "404", description = "Franquicia no encontrada"),
-            @ApiResponse(responseCode = "400", description = "Datos inválidos")
+            @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+            @ApiResponse(responseCode = "409", description = "Modificación concurrente, reintentos agotados"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match no coincide o el ETag enviado es débil")
     })
     @PutMapping("/{id}")
     public ResponseEntity<FranquiciaResponseDTO> actualizarNombreFranquicia(
             @Parameter(description = "ID de la franquicia", required = true)
             @PathVariable Long id,
+            @Parameter(description = "Versión esperada como ETag fuerte (\"3\": el ETag de un PUT o el campo version); "
+                    + "los ETag débiles de los GET no coinciden nunca (comparación fuerte) y se responde 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody FranquiciaRequestDTO requestDTO) {
         log.info("PUT /api/v1/franquicias/{} - Actualizar nombre de franquicia", id);
-        FranquiciaResponseDTO response = franquiciaService.actualizarNombreFranquicia(id, requestDTO);
-        return ResponseEntity.ok(response);
+        FranquiciaResponseDTO response = franquiciaService.actualizarNombreFranquicia(
+                id, requestDTO, VersionEtag.versionDe(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionEtag.etag(response.getVersion()))
+                .body(response);
     }
 
     @Operation(summary = "Eliminar franquicia", description = "Elimina una franquicia del sistema")
@@ -105,7 +181,7 @@ public class FranquiciaController {
     }
 
     @Operation(summary = "Obtener productos con mayor stock por sucursal",
-            description = "Para una franquicia específica, retorna el producto con mayor stock de cada sucursal")
+            description = "Para una franquicia específica, retorna los k productos con mayor stock de cada sucursal")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Listado obtenido exitosamente"),
             @ApiResponse(responseCode = "404", description = "Franquicia no encontrada")
@@ -113,9 +189,50 @@ public class FranquiciaController {
     @GetMapping("/{id}/productos-mayor-stock")
     public ResponseEntity<List<ProductoMaxStockDTO>> obtenerProductosConMayorStockPorSucursal(
             @Parameter(description = "ID de la franquicia", required = true)
-            @PathVariable Long id) {
-        log.info("GET /api/v1/franquicias/{}/productos-mayor-stock", id);
-        List<ProductoMaxStockDTO> response = franquiciaService.obtenerProductosConMayorStockPorSucursal(id);
+            @PathVariable Long id,
+            @Parameter(description = "Productos por sucursal (máximo " + ProductoMaxStockDTO.K_MAXIMO + ")")
+            @RequestParam(defaultValue = "1") int k) {
+        log.info("GET /api/v1/franquicias/{}/productos-mayor-stock?k={}", id, k);
+        List<ProductoMaxStockDTO> response = franquiciaService.obtenerProductosConMayorStockPorSucursal(id, k);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Obtener productos con mayor stock de la franquicia",
+            description = "Retorna los k productos con mayor stock entre todas las sucursales de la franquicia")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Listado obtenido exitosamente"),
+            @ApiResponse(responseCode = "404", description = "Franquicia no encontrada")
+    })
+    @GetMapping("/{id}/productos-top")
+    public ResponseEntity<List<ProductoMaxStockDTO>> obtenerProductosConMayorStock(
+            @Parameter(description = "ID de la franquicia", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Número de productos (máximo " + ProductoMaxStockDTO.K_MAXIMO + ")")
+            @RequestParam(defaultValue = "10") int k) {
+        log.info("GET /api/v1/franquicias/{}/productos-top?k={}", id, k);
+        List<ProductoMaxStockDTO> response = franquiciaService.obtenerProductosConMayorStock(id, k);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Resumen de inventario de la franquicia",
+            description = "Stock total, número de productos, stock mínimo, máximo y promedio y productos con " +
+                    "bajo stock, por sucursal y de toda la franquicia")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resumen obtenido exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Valor de refresco inválido"),
+            @ApiResponse(responseCode = "404", description = "Franquicia no encontrada")
+    })
+    @GetMapping("/{id}/inventario/resumen")
+    public ResponseEntity<InventarioResumenDTO> obtenerResumenInventario(
+            @Parameter(description = "ID de la franquicia", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Los productos con stock menor que este valor cuentan como bajo stock")
+            @RequestParam(defaultValue = "${app.inventario.umbral-bajo-stock:10}") int umbral,
+            @Parameter(description = "incremental (solo las sucursales modificadas desde el último cálculo) o completo")
+            @RequestParam(required = false, defaultValue = "incremental") String refresco) {
+        log.info("GET /api/v1/franquicias/{}/inventario/resumen?umbral={}&refresco={}", id, umbral, refresco);
+        InventarioResumenDTO response = franquiciaService.obtenerResumenInventario(id, umbral,
+                RefrescoInventario.from(refresco));
         return ResponseEntity.ok(response);
     }
 }
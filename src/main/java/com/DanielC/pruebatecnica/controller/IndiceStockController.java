@@ -0,0 +1,45 @@
+package com.DanielC.pruebatecnica.controller;
+
+import com.DanielC.pruebatecnica.dto.VerificacionIndiceDTO;
+import com.DanielC.pruebatecnica.service.IndiceMayorStock;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador REST para el índice en memoria de productos con mayor stock
+ */
+@RestController
+@RequestMapping("/api/v1/indice-stock")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Índice de stock", description = "Verificación del índice en memoria de mayor stock")
+public class IndiceStockController {
+
+    private final IndiceMayorStock indiceMayorStock;
+
+    @Operation(summary = "Verificar índice",
+            description = "Compara el producto con mayor stock de cada sucursal en el índice contra la base de datos")
+    @ApiResponse(responseCode = "200", description = "Verificación realizada")
+    @GetMapping("/verificacion")
+    public ResponseEntity<VerificacionIndiceDTO> verificar() {
+        log.info("GET /api/v1/indice-stock/verificacion - Verificar índice de mayor stock");
+        return ResponseEntity.ok(indiceMayorStock.verificar());
+    }
+
+    @Operation(summary = "Reconstruir índice", description = "Vuelve a cargar el índice desde la base de datos")
+    @ApiResponse(responseCode = "200", description = "Índice reconstruido")
+    @PostMapping("/reconstruccion")
+    public ResponseEntity<VerificacionIndiceDTO> reconstruir() {
+        log.info("POST /api/v1/indice-stock/reconstruccion - Reconstruir índice de mayor stock");
+        indiceMayorStock.calentar();
+        return ResponseEntity.ok(indiceMayorStock.verificar());
+    }
+}
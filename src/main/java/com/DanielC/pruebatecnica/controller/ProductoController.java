@@ -1,8 +1,15 @@
 package com.DanielC.pruebatecnica.controller;
 
+import com.DanielC.pruebatecnica.dto.AjusteStockRequestDTO;
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.ImportacionResponseDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
 import com.DanielC.pruebatecnica.dto.ProductoRequestDTO;
 import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.dto.WriteBehindEstadisticasDTO;
+import com.DanielC.pruebatecnica.exception.ImportacionInvalidaException;
 import com.DanielC.pruebatecnica.service.ProductoService;
+import com.DanielC.pruebatecnica.service.StockWriteBehindService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,10 +20,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +47,9 @@ import java.util.Map;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final StockWriteBehindService stockWriteBehindService;
+    private final ObjectMapper objectMapper;
+    private final FormatoNegociado formatoNegociado;
 
     @Operation(summary = "Crear un nuevo producto", description = "Agrega un nuevo producto a una sucursal")
     @ApiResponses(value = {
@@ -47,59 +66,192 @@ public class ProductoController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Crear productos de forma masiva",
+            description = "Crea varios productos en una sola petición a partir de un arreglo JSON. " +
+                    "Todos los elementos se validan antes de insertar cualquiera")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Productos creados exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+            @ApiResponse(responseCode = "404", description = "Sucursal no encontrada")
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportacionResponseDTO> crearProductos(
+            @RequestBody List<ProductoRequestDTO> requestDTOs) {
+        log.info("POST /api/v1/productos/bulk - Crear {} productos", requestDTOs.size());
+        ImportacionResponseDTO response = productoService.crearProductos(requestDTOs);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Crear productos de forma masiva desde NDJSON",
+            description = "Igual que el endpoint anterior pero recibe un producto JSON por línea")
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportacionResponseDTO> crearProductosNdjson(InputStream body) {
+        List<ProductoRequestDTO> requestDTOs = leerNdjson(body);
+        log.info("POST /api/v1/productos/bulk (NDJSON) - Crear {} productos", requestDTOs.size());
+        ImportacionResponseDTO response = productoService.crearProductos(requestDTOs);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
     @Operation(summary = "Obtener producto por ID", description = "Obtiene los detalles de un producto específico")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Producto encontrado"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag o la fecha enviados"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado")
     })
     @GetMapping("/{id}")
     public ResponseEntity<ProductoResponseDTO> obtenerProductoPorId(
             @Parameter(description = "ID del producto", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            NativeWebRequest request) {
         log.info("GET /api/v1/productos/{} - Obtener producto por ID", id);
+        EstadoAgregadoDTO estado = productoService.obtenerEstadoProducto(id);
+        String etag = VersionEtag.etag(estado, "producto", formatoNegociado.de(request));
+        long ultimaModificacion = VersionEtag.ultimaModificacion(estado);
+        if (request.checkNotModified(etag, ultimaModificacion)) {
+            return null;
+        }
         ProductoResponseDTO response = productoService.obtenerProductoPorId(id);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(ultimaModificacion)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(response);
     }
 
     @Operation(summary = "Obtener todos los productos", description = "Obtiene la lista completa de productos")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista de productos obtenida exitosamente"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag o la fecha enviados")
+    })
     @GetMapping
-    public ResponseEntity<List<ProductoResponseDTO>> obtenerTodosLosProductos() {
+    public ResponseEntity<List<ProductoResponseDTO>> obtenerTodosLosProductos(NativeWebRequest request) {
         log.info("GET /api/v1/productos - Obtener todos los productos");
+        EstadoAgregadoDTO estado = productoService.obtenerEstadoProductos();
+        String etag = VersionEtag.etagListado(estado, "productos", formatoNegociado.de(request));
+        long ultimaModificacion = VersionEtag.ultimaModificacion(estado);
+        if (request.checkNotModified(etag, ultimaModificacion)) {
+            return null;
+        }
         List<ProductoResponseDTO> response = productoService.obtenerTodosLosProductos();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(ultimaModificacion)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(response);
+    }
+
+    @Operation(summary = "Obtener productos paginados",
+            description = "Obtiene una página de productos ordenados por ID usando paginación por cursor")
+    @GetMapping(params = "limit")
+    public ResponseEntity<PaginaResponseDTO<ProductoResponseDTO>> obtenerProductosPaginados(
+            @Parameter(description = "Cantidad máxima de productos (máximo " + PaginaResponseDTO.LIMITE_MAXIMO + ")")
+            @RequestParam int limit,
+            @Parameter(description = "Cursor: ID del último producto de la página anterior")
+            @RequestParam(required = false) Long after) {
+        log.info("GET /api/v1/productos?limit={}&after={} - Obtener productos paginados", limit, after);
+        PaginaResponseDTO<ProductoResponseDTO> response = productoService.obtenerProductosPaginados(after, limit);
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Exportar todos los productos",
+            description = "Transmite todos los productos en formato NDJSON (un objeto JSON por línea)")
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportarProductos() {
+        log.info("GET /api/v1/productos/export - Exportar productos");
+        StreamingResponseBody body = outputStream -> productoService.exportarProductos(producto -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(producto));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @Operation(summary = "Actualizar stock de producto", description = "Modifica la cantidad de stock de un producto")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Stock actualizado exitosamente"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
-            @ApiResponse(responseCode = "400", description = "Valor de stock inválido")
+            @ApiResponse(responseCode = "400", description = "Valor de stock inválido"),
+            @ApiResponse(responseCode = "409", description = "Modificación concurrente, reintentos agotados"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match no coincide o el ETag enviado es débil")
     })
     @PutMapping("/{id}/stock")
     public ResponseEntity<ProductoResponseDTO> actualizarStockProducto(
             @Parameter(description = "ID del producto", required = true)
             @PathVariable Long id,
+            @Parameter(description = "Versión esperada como ETag fuerte (\"3\": el ETag de un PUT o el campo version); "
+                    + "los ETag débiles de los GET no coinciden nunca (comparación fuerte) y se responde 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, Integer> body) {
         log.info("PUT /api/v1/productos/{}/stock - Actualizar stock", id);
         Integer nuevoStock = body.get("stock");
-        ProductoResponseDTO response = productoService.actualizarStockProducto(id, nuevoStock);
+        ProductoResponseDTO response = productoService.actualizarStockProducto(
+                id, nuevoStock, VersionEtag.versionDe(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionEtag.etag(response.getVersion()))
+                .body(response);
+    }
+
+    @Operation(summary = "Ajustar stock de producto",
+            description = "Incrementa o decrementa el stock de un producto de forma atómica según el delta indicado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock ajustado exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Delta inválido"),
+            @ApiResponse(responseCode = "202", description = "Ajuste encolado (write-behind asíncrono)"),
+            @ApiResponse(responseCode = "204", description = "Ajuste aplicado en lote (write-behind con group commit)"),
+            @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+            @ApiResponse(responseCode = "409", description = "Stock insuficiente para aplicar el ajuste"),
+            @ApiResponse(responseCode = "503", description = "Write-behind deteniéndose o ajuste no confirmado a tiempo (no aplicado)")
+    })
+    @PatchMapping("/{id}/stock")
+    public ResponseEntity<ProductoResponseDTO> ajustarStockProducto(
+            @Parameter(description = "ID del producto", required = true)
+            @PathVariable Long id,
+            @Valid @RequestBody AjusteStockRequestDTO requestDTO) {
+        log.info("PATCH /api/v1/productos/{}/stock - Ajustar stock en {}", id, requestDTO.getDelta());
+        if (stockWriteBehindService.isHabilitado()) {
+            boolean aplicado = stockWriteBehindService.ajustar(id, requestDTO.getDelta());
+            return ResponseEntity.status(aplicado ? HttpStatus.NO_CONTENT : HttpStatus.ACCEPTED).build();
+        }
+        ProductoResponseDTO response = productoService.ajustarStockProducto(id, requestDTO.getDelta());
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Estado del write-behind de stock",
+            description = "Devuelve ajustes pendientes, número de flushes y latencia de escritura del acumulador de stock")
+    @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente")
+    @GetMapping("/stock/write-behind")
+    public ResponseEntity<WriteBehindEstadisticasDTO> obtenerEstadisticasWriteBehind() {
+        log.info("GET /api/v1/productos/stock/write-behind - Obtener estadísticas del write-behind");
+        return ResponseEntity.ok(stockWriteBehindService.obtenerEstadisticas());
+    }
+
     @Operation(summary = "Actualizar nombre de producto", description = "Actualiza el nombre de un producto existente")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Nombre actualizado exitosamente"),
-            @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+            @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+            @ApiResponse(responseCode = "409", description = "Modificación concurrente, reintentos agotados"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match no coincide o el ETag enviado es débil")
     })
     @PutMapping("/{id}/nombre")
     public ResponseEntity<ProductoResponseDTO> actualizarNombreProducto(
             @Parameter(description = "ID del producto", required = true)
             @PathVariable Long id,
+            @Parameter(description = "Versión esperada como ETag fuerte (\"3\": el ETag de un PUT o el campo version); "
+                    + "los ETag débiles de los GET no coinciden nunca (comparación fuerte) y se responde 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, String> body) {
         log.info("PUT /api/v1/productos/{}/nombre - Actualizar nombre", id);
         String nuevoNombre = body.get("nombre");
-        ProductoResponseDTO response = productoService.actualizarNombreProducto(id, nuevoNombre);
-        return ResponseEntity.ok(response);
+        ProductoResponseDTO response = productoService.actualizarNombreProducto(
+                id, nuevoNombre, VersionEtag.versionDe(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionEtag.etag(response.getVersion()))
+                .body(response);
     }
 
     @Operation(summary = "Eliminar producto", description = "Elimina un producto de una sucursal")
@@ -115,5 +267,14 @@ public class ProductoController {
         productoService.eliminarProducto(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    private List<ProductoRequestDTO> leerNdjson(InputStream body) {
+        try {
+            return objectMapper.readerFor(ProductoRequestDTO.class)
+                    .<ProductoRequestDTO>readValues(body)
+                    .readAll();
+        } catch (JacksonException e) {
+            throw new ImportacionInvalidaException("NDJSON inválido: " + e.getOriginalMessage(), Map.of());
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.DanielC.pruebatecnica.controller;
 
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.ImportacionResponseDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
 import com.DanielC.pruebatecnica.dto.SucursalRequestDTO;
 import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.dto.UmbralStockDTO;
+import com.DanielC.pruebatecnica.dto.UmbralStockRequestDTO;
+import com.DanielC.pruebatecnica.exception.ImportacionInvalidaException;
 import com.DanielC.pruebatecnica.service.SucursalService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,10 +19,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +43,8 @@ import java.util.Map;
 public class SucursalController {
 
     private final SucursalService sucursalService;
+    private final ObjectMapper objectMapper;
+    private final FormatoNegociado formatoNegociado;
 
     @Operation(summary = "Crear una nueva sucursal", description = "Agrega una nueva sucursal a una franquicia")
     @ApiResponses(value = {
@@ -47,42 +61,154 @@ public class SucursalController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Crear sucursales de forma masiva",
+            description = "Crea varias sucursales en una sola petición a partir de un arreglo JSON. " +
+                    "Todos los elementos se validan antes de insertar cualquiera")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Sucursales creadas exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+            @ApiResponse(responseCode = "404", description = "Franquicia no encontrada")
+    })
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportacionResponseDTO> crearSucursales(
+            @RequestBody List<SucursalRequestDTO> requestDTOs) {
+        log.info("POST /api/v1/sucursales/bulk - Crear {} sucursales", requestDTOs.size());
+        ImportacionResponseDTO response = sucursalService.crearSucursales(requestDTOs);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Crear sucursales de forma masiva desde NDJSON",
+            description = "Igual que el endpoint anterior pero recibe una sucursal JSON por línea")
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportacionResponseDTO> crearSucursalesNdjson(InputStream body) {
+        List<SucursalRequestDTO> requestDTOs = leerNdjson(body);
+        log.info("POST /api/v1/sucursales/bulk (NDJSON) - Crear {} sucursales", requestDTOs.size());
+        ImportacionResponseDTO response = sucursalService.crearSucursales(requestDTOs);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
     @Operation(summary = "Obtener sucursal por ID", description = "Obtiene los detalles de una sucursal específica")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Sucursal encontrada"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag o la fecha enviados"),
             @ApiResponse(responseCode = "404", description = "Sucursal no encontrada")
     })
     @GetMapping("/{id}")
     public ResponseEntity<SucursalResponseDTO> obtenerSucursalPorId(
             @Parameter(description = "ID de la sucursal", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            NativeWebRequest request) {
         log.info("GET /api/v1/sucursales/{} - Obtener sucursal por ID", id);
+        EstadoAgregadoDTO estado = sucursalService.obtenerEstadoSucursal(id);
+        String etag = VersionEtag.etag(estado, "sucursal", formatoNegociado.de(request));
+        long ultimaModificacion = VersionEtag.ultimaModificacion(estado);
+        if (request.checkNotModified(etag, ultimaModificacion)) {
+            return null;
+        }
         SucursalResponseDTO response = sucursalService.obtenerSucursalPorId(id);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(ultimaModificacion)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(response);
     }
 
     @Operation(summary = "Obtener todas las sucursales", description = "Obtiene la lista completa de sucursales")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista de sucursales obtenida exitosamente"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag o la fecha enviados")
+    })
     @GetMapping
-    public ResponseEntity<List<SucursalResponseDTO>> obtenerTodasLasSucursales() {
+    public ResponseEntity<List<SucursalResponseDTO>> obtenerTodasLasSucursales(NativeWebRequest request) {
         log.info("GET /api/v1/sucursales - Obtener todas las sucursales");
+        EstadoAgregadoDTO estado = sucursalService.obtenerEstadoSucursales();
+        String etag = VersionEtag.etagListado(estado, "sucursales", formatoNegociado.de(request));
+        long ultimaModificacion = VersionEtag.ultimaModificacion(estado);
+        if (request.checkNotModified(etag, ultimaModificacion)) {
+            return null;
+        }
         List<SucursalResponseDTO> response = sucursalService.obtenerTodasLasSucursales();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(ultimaModificacion)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(response);
+    }
+
+    @Operation(summary = "Obtener sucursales paginadas",
+            description = "Obtiene una página de sucursales ordenadas por ID usando paginación por cursor")
+    @GetMapping(params = "limit")
+    public ResponseEntity<PaginaResponseDTO<SucursalResponseDTO>> obtenerSucursalesPaginadas(
+            @Parameter(description = "Cantidad máxima de sucursales (máximo " + PaginaResponseDTO.LIMITE_MAXIMO + ")")
+            @RequestParam int limit,
+            @Parameter(description = "Cursor: ID de la última sucursal de la página anterior")
+            @RequestParam(required = false) Long after) {
+        log.info("GET /api/v1/sucursales?limit={}&after={} - Obtener sucursales paginadas", limit, after);
+        PaginaResponseDTO<SucursalResponseDTO> response = sucursalService.obtenerSucursalesPaginadas(after, limit);
         return ResponseEntity.ok(response);
     }
 
     @Operation(summary = "Actualizar nombre de sucursal", description = "Actualiza el nombre de una sucursal existente")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Sucursal actualizada exitosamente"),
-            @ApiResponse(responseCode = "404", description = "Sucursal no encontrada")
+            @ApiResponse(responseCode = "404", description = "Sucursal no encontrada"),
+            @ApiResponse(responseCode = "409", description = "Modificación concurrente, reintentos agotados"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match no coincide o el ETag enviado es débil")
     })
     @PutMapping("/{id}/nombre")
     public ResponseEntity<SucursalResponseDTO> actualizarNombreSucursal(
             @Parameter(description = "ID de la sucursal", required = true)
             @PathVariable Long id,
+            @Parameter(description = "Versión esperada como ETag fuerte (\"3\": el ETag de un PUT o el campo version); "
+                    + "los ETag débiles de los GET no coinciden nunca (comparación fuerte) y se responde 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, String> body) {
         log.info("PUT /api/v1/sucursales/{}/nombre - Actualizar nombre", id);
         String nuevoNombre = body.get("nombre");
-        SucursalResponseDTO response = sucursalService.actualizarNombreSucursal(id, nuevoNombre);
-        return ResponseEntity.ok(response);
+        SucursalResponseDTO response = sucursalService.actualizarNombreSucursal(
+                id, nuevoNombre, VersionEtag.versionDe(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionEtag.etag(response.getVersion()))
+                .body(response);
+    }
+
+    @Operation(summary = "Obtener umbral de bajo stock",
+            description = "Umbral que dispara las alertas de /api/v1/alertas/stock para la sucursal")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Umbral obtenido exitosamente"),
+            @ApiResponse(responseCode = "404", description = "Sucursal no encontrada")
+    })
+    @GetMapping("/{id}/umbral-stock")
+    public ResponseEntity<UmbralStockDTO> obtenerUmbralStock(
+            @Parameter(description = "ID de la sucursal", required = true)
+            @PathVariable Long id) {
+        log.info("GET /api/v1/sucursales/{}/umbral-stock - Obtener umbral de bajo stock", id);
+        return ResponseEntity.ok(sucursalService.obtenerUmbralStock(id));
+    }
+
+    @Operation(summary = "Actualizar umbral de bajo stock",
+            description = "Fija el umbral de bajo stock de la sucursal; con umbral null vuelve al umbral por defecto")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Umbral actualizado exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Umbral negativo"),
+            @ApiResponse(responseCode = "404", description = "Sucursal no encontrada"),
+            @ApiResponse(responseCode = "409", description = "Modificación concurrente, reintentos agotados"),
+            @ApiResponse(responseCode = "412", description = "La versión de If-Match no coincide o el ETag enviado es débil")
+    })
+    @PutMapping("/{id}/umbral-stock")
+    public ResponseEntity<UmbralStockDTO> actualizarUmbralStock(
+            @Parameter(description = "ID de la sucursal", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Versión esperada como ETag fuerte (\"3\": el ETag de un PUT o el campo version); "
+                    + "los ETag débiles de los GET no coinciden nunca (comparación fuerte) y se responde 412")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UmbralStockRequestDTO requestDTO) {
+        log.info("PUT /api/v1/sucursales/{}/umbral-stock - Actualizar umbral a {}", id, requestDTO.getUmbral());
+        UmbralStockDTO response = sucursalService.actualizarUmbralStock(
+                id, requestDTO.getUmbral(), VersionEtag.versionDe(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionEtag.etag(response.getVersion()))
+                .body(response);
     }
 
     @Operation(summary = "Eliminar sucursal", description = "Elimina una sucursal del sistema")
@@ -98,5 +224,14 @@ public class SucursalController {
         sucursalService.eliminarSucursal(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    private List<SucursalRequestDTO> leerNdjson(InputStream body) {
+        try {
+            return objectMapper.readerFor(SucursalRequestDTO.class)
+                    .<SucursalRequestDTO>readValues(body)
+                    .readAll();
+        } catch (JacksonException e) {
+            throw new ImportacionInvalidaException("NDJSON inválido: " + e.getOriginalMessage(), Map.of());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.DanielC.pruebatecnica.controller;
+
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.exception.ParametroInvalidoException;
+import com.DanielC.pruebatecnica.exception.VersionMismatchException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneId;
+import java.util.HexFormat;
+
+/**
+ * Conversión entre la versión de una entidad y los encabezados ETag / If-Match,
+ * y cálculo de los validadores (ETag, Last-Modified) de los GET condicionales
+ */
+final class VersionEtag {
+
+    private VersionEtag() {
+    }
+
+    static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * ETag de un GET por ID: la versión de la entidad raíz seguida de un resumen del estado de todo
+     * lo que incluye la respuesta y del formato negociado (JSON, CBOR, Smile y Protobuf son
+     * representaciones distintas). Es débil (W/) porque la misma representación puede enviarse
+     * comprimida con gzip, y Tomcat no comprime respuestas con ETag fuerte; por eso solo sirve para
+     * If-None-Match y no como If-Match.
+     */
+    static String etag(EstadoAgregadoDTO estado, String variante, String formato) {
+        return "W/\"" + estado.getVersionRaiz() + "-" + resumen(estado, variante + "|" + formato) + "\"";
+    }
+
+    /**
+     * ETag (débil) de un listado completo en el formato negociado
+     */
+    static String etagListado(EstadoAgregadoDTO estado, String variante, String formato) {
+        return "W/\"" + resumen(estado, variante + "|" + formato) + "\"";
+    }
+
+    /**
+     * Last-Modified en milisegundos, o -1 si el agregado está vacío
+     */
+    static long ultimaModificacion(EstadoAgregadoDTO estado) {
+        if (estado.getUltimaModificacion() == null) {
+            return -1;
+        }
+        return estado.getUltimaModificacion().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Devuelve la versión enviada en If-Match, o null si no se envió o es "*".
+     * If-Match usa comparación fuerte (RFC 9110 §13.1.1): un ETag débil, como el de los GET
+     * (W/"3-9f2c..."), nunca coincide y se responde 412. Se espera el ETag fuerte de los PUT y
+     * PATCH ("3"), o el campo version del cuerpo entre comillas.
+     */
+    static Long versionDe(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            throw new VersionMismatchException("If-Match usa comparación fuerte y no admite ETag débiles ("
+                    + ifMatch + "); envíe la versión como \"<version>\"");
+        }
+        if (valor.length() > 1 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1);
+        }
+        if (valor.indexOf('-') > 0) {
+            // Solo los GET generan ETag con resumen, y son débiles: ninguna representación actual coincide
+            throw new VersionMismatchException("El ETag de If-Match no corresponde a ninguna versión: " + ifMatch);
+        }
+        try {
+            return Long.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new ParametroInvalidoException("Encabezado If-Match inválido: " + ifMatch);
+        }
+    }
+
+    private static String resumen(EstadoAgregadoDTO estado, String variante) {
+        String clave = variante + "|" + estado.getUltimaModificacion() + "|" + estado.getElementos()
+                + "|" + estado.getSumaVersiones();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(clave.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
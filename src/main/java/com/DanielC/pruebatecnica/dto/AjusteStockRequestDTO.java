@@ -0,0 +1,20 @@
+package com.DanielC.pruebatecnica.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para incrementar (delta positivo) o decrementar (delta negativo) el stock de un producto
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AjusteStockRequestDTO {
+
+    @NotNull(message = "El delta es obligatorio")
+    private Integer delta;
+}
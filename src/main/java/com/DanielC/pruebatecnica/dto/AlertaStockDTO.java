@@ -0,0 +1,30 @@
+package com.DanielC.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cruce del umbral de bajo stock enviado a los suscriptores de /api/v1/alertas/stock.
+ * La secuencia es también el id del evento SSE (Last-Event-ID al reconectar).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AlertaStockDTO {
+    private long secuencia;
+    private TipoAlertaStock tipo;
+    private Long productoId;
+    private String productoNombre;
+    private Long sucursalId;
+    private String sucursalNombre;
+    private Long franquiciaId;
+    private Integer stockAnterior;
+    private Integer stockActual;
+    private Integer umbral;
+    private LocalDateTime fecha;
+}
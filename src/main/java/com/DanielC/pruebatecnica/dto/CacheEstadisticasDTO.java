@@ -0,0 +1,22 @@
+package com.DanielC.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con las estadísticas de una caché de lecturas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheEstadisticasDTO {
+    private String nombre;
+    private long tamano;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long evictions;
+}
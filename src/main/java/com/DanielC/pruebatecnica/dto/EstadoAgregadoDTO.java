@@ -0,0 +1,51 @@
+package com.DanielC.pruebatecnica.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumen barato del estado de un conjunto de filas (última modificación, número de filas y
+ * suma de versiones). Sirve para calcular ETag y Last-Modified sin cargar las entidades:
+ * cualquier alta, baja o modificación cambia al menos uno de los tres valores.
+ */
+@Data
+public class EstadoAgregadoDTO {
+    private final LocalDateTime ultimaModificacion;
+    private final long elementos;
+    private final long sumaVersiones;
+    /** Suma de versiones del primer agregado; en las consultas por ID es la versión de la entidad raíz */
+    private final long versionRaiz;
+
+    /**
+     * Constructor usado por las consultas JPQL de agregación: max y sum son null si no hay filas
+     */
+    public EstadoAgregadoDTO(LocalDateTime ultimaModificacion, Long elementos, Long sumaVersiones) {
+        this.ultimaModificacion = ultimaModificacion;
+        this.elementos = elementos != null ? elementos : 0L;
+        this.sumaVersiones = sumaVersiones != null ? sumaVersiones : 0L;
+        this.versionRaiz = this.sumaVersiones;
+    }
+
+    private EstadoAgregadoDTO(LocalDateTime ultimaModificacion, long elementos, long sumaVersiones, long versionRaiz) {
+        this.ultimaModificacion = ultimaModificacion;
+        this.elementos = elementos;
+        this.sumaVersiones = sumaVersiones;
+        this.versionRaiz = versionRaiz;
+    }
+
+    public boolean isVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Estado conjunto de dos agregados (por ejemplo, una franquicia y sus sucursales)
+     */
+    public EstadoAgregadoDTO combinar(EstadoAgregadoDTO otro) {
+        LocalDateTime ultima = ultimaModificacion;
+        if (ultima == null || (otro.ultimaModificacion != null && otro.ultimaModificacion.isAfter(ultima))) {
+            ultima = otro.ultimaModificacion;
+        }
+        return new EstadoAgregadoDTO(ultima, elementos + otro.elementos, sumaVersiones + otro.sumaVersiones, versionRaiz);
+    }
+}
@@ -0,0 +1,29 @@
+package com.DanielC.pruebatecnica.dto;
+
+import com.DanielC.pruebatecnica.exception.ParametroInvalidoException;
+
+import java.util.Locale;
+
+/**
+ * Nivel de detalle con el que se devuelve una franquicia
+ */
+public enum FranquiciaExpand {
+    /** Solo los datos de la franquicia */
+    NONE,
+    /** Franquicia con sus sucursales, sin productos */
+    SUCURSALES,
+    /** Franquicia con sucursales y productos */
+    FULL;
+
+    public static FranquiciaExpand from(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return FULL;
+        }
+        try {
+            return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ParametroInvalidoException(
+                    "Valor de expand inválido: " + valor + ". Valores permitidos: none, sucursales, full");
+        }
+    }
+}
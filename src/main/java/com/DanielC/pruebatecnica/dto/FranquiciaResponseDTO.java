@@ -1,5 +1,6 @@
 package com.DanielC.pruebatecnica.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,8 +19,18 @@ import java.util.List;
 public class FranquiciaResponseDTO {
     private Long id;
     private String nombre;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<SucursalResponseDTO> sucursales;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+
+    /**
+     * Constructor usado por las proyecciones JPQL: franquicia sin sucursales
+     */
+    public FranquiciaResponseDTO(Long id, String nombre, LocalDateTime createdAt, LocalDateTime updatedAt,
+                                 Long version) {
+        this(id, nombre, null, createdAt, updatedAt, version);
+    }
 }
 
@@ -0,0 +1,20 @@
+package com.DanielC.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta para la creación masiva de sucursales o productos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportacionResponseDTO {
+    private int total;
+    private List<Long> ids;
+}
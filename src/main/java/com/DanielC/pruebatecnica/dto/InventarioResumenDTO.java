@@ -0,0 +1,31 @@
+package com.DanielC.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resumen de inventario de una franquicia: totales de la franquicia y detalle por sucursal
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventarioResumenDTO {
+    private Long franquiciaId;
+    private String franquiciaNombre;
+    /** Los productos con stock menor que este valor cuentan como bajo stock */
+    private int umbralBajoStock;
+    private long productos;
+    private long stockTotal;
+    private Integer stockMinimo;
+    private Integer stockMaximo;
+    private Double stockPromedio;
+    private long productosBajoStock;
+    /** Sucursales consultadas a la base de datos para esta respuesta (0 si salió entera de caché) */
+    private int sucursalesRecalculadas;
+    private List<InventarioSucursalDTO> sucursales;
+}
@@ -0,0 +1,37 @@
+package com.DanielC.pruebatecnica.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Indicadores de inventario de una sucursal calculados con GROUP BY
+ */
+@Data
+@NoArgsConstructor
+public class InventarioSucursalDTO {
+    private Long sucursalId;
+    private String sucursalNombre;
+    private long productos;
+    private long stockTotal;
+    private Integer stockMinimo;
+    private Integer stockMaximo;
+    private Double stockPromedio;
+    private long productosBajoStock;
+
+    /**
+     * Constructor usado por la consulta JPQL: con LEFT JOIN una sucursal sin productos llega con
+     * sum nulo, y min, max y avg quedan nulos
+     */
+    public InventarioSucursalDTO(Long sucursalId, String sucursalNombre, Long productos, Long stockTotal,
+                                 Integer stockMinimo, Integer stockMaximo, Double stockPromedio,
+                                 Long productosBajoStock) {
+        this.sucursalId = sucursalId;
+        this.sucursalNombre = sucursalNombre;
+        this.productos = productos != null ? productos : 0L;
+        this.stockTotal = stockTotal != null ? stockTotal : 0L;
+        this.stockMinimo = stockMinimo;
+        this.stockMaximo = stockMaximo;
+        this.stockPromedio = stockPromedio;
+        this.productosBajoStock = productosBajoStock != null ? productosBajoStock : 0L;
+    }
+}
@@ -0,0 +1,26 @@
+package com.DanielC.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta para listados paginados por cursor (keyset sobre id).
+ * nextCursor es el id a enviar en el parámetro after para obtener la siguiente
+ * página, o null si no hay más resultados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaginaResponseDTO<T> {
+
+    public static final int LIMITE_MAXIMO = 500;
+
+    private List<T> items;
+    private int limit;
+    private Long nextCursor;
+}
@@ -13,6 +13,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Builder
 public class ProductoMaxStockDTO {
+    public static final int K_MAXIMO = 100;
+
     private Long productoId;
     private String productoNombre;
     private Integer stock;
@@ -22,5 +22,6 @@ public class ProductoResponseDTO {
     private String sucursalNombre;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 }
 
@@ -0,0 +1,27 @@
+package com.DanielC.pruebatecnica.dto;
+
+import com.DanielC.pruebatecnica.exception.ParametroInvalidoException;
+
+import java.util.Locale;
+
+/**
+ * Cómo se actualiza el resumen de inventario cacheado de una franquicia
+ */
+public enum RefrescoInventario {
+    /** Solo se recalculan las sucursales modificadas desde el último cálculo */
+    INCREMENTAL,
+    /** Se recalculan todas las sucursales */
+    COMPLETO;
+
+    public static RefrescoInventario from(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return INCREMENTAL;
+        }
+        try {
+            return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ParametroInvalidoException(
+                    "Valor de refresco inválido: " + valor + ". Valores permitidos: incremental, completo");
+        }
+    }
+}
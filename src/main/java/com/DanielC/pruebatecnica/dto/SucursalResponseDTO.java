@@ -1,5 +1,6 @@
 package com.DanielC.pruebatecnica.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,8 +21,18 @@ public class SucursalResponseDTO {
     private String nombre;
     private Long franquiciaId;
     private String franquiciaNombre;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<ProductoResponseDTO> productos;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+
+    /**
+     * Constructor usado por las proyecciones JPQL: sucursal sin productos
+     */
+    public SucursalResponseDTO(Long id, String nombre, Long franquiciaId, String franquiciaNombre,
+                               LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this(id, nombre, franquiciaId, franquiciaNombre, null, createdAt, updatedAt, version);
+    }
 }
 
@@ -0,0 +1,11 @@
+package com.DanielC.pruebatecnica.dto;
+
+/**
+ * Sentido en que un cambio de stock cruza el umbral de bajo stock de la sucursal
+ */
+public enum TipoAlertaStock {
+    /** El stock estaba en el umbral o por encima y quedó por debajo */
+    BAJO_STOCK,
+    /** El stock estaba por debajo del umbral y volvió a alcanzarlo */
+    REPUESTO
+}
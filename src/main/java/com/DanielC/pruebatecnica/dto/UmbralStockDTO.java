@@ -0,0 +1,21 @@
+package com.DanielC.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Umbral de bajo stock efectivo de una sucursal
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UmbralStockDTO {
+    private Long sucursalId;
+    private Integer umbral;
+    /** true si la sucursal no tiene umbral propio y se aplica el de la configuración */
+    private boolean porDefecto;
+    private Long version;
+}
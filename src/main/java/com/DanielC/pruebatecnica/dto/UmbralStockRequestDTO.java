@@ -0,0 +1,20 @@
+package com.DanielC.pruebatecnica.dto;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para fijar el umbral de bajo stock de una sucursal; null vuelve al umbral por defecto
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UmbralStockRequestDTO {
+
+    @Min(value = 0, message = "El umbral no puede ser negativo")
+    private Integer umbral;
+}
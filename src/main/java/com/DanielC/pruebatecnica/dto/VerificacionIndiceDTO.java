@@ -0,0 +1,22 @@
+package com.DanielC.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de comparar el índice de mayor stock contra la base de datos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VerificacionIndiceDTO {
+    private boolean listo;
+    private boolean consistente;
+    private int sucursalesRevisadas;
+    private List<String> diferencias;
+}
@@ -0,0 +1,28 @@
+package com.DanielC.pruebatecnica.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el estado del acumulador write-behind de ajustes de stock
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WriteBehindEstadisticasDTO {
+    private boolean habilitado;
+    private String durabilidad;
+    private int ajustesPendientes;
+    private int productosPendientes;
+    private long flushes;
+    private long ajustesAplicados;
+    private long ajustesRechazados;
+    /** Ajustes GROUP_COMMIT retirados de la cola por timeout (respondidos con 503) */
+    private long ajustesCancelados;
+    private long flushesFallidos;
+    private double ultimaLatenciaFlushMs;
+    private double maxLatenciaFlushMs;
+}
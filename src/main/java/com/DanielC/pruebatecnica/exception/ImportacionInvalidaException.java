@@ -0,0 +1,19 @@
+package com.DanielC.pruebatecnica.exception;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Excepción cuando uno o más elementos de una importación masiva no son válidos
+ */
+@Getter
+public class ImportacionInvalidaException extends RuntimeException {
+
+    private final Map<String, String> validationErrors;
+
+    public ImportacionInvalidaException(String message, Map<String, String> validationErrors) {
+        super(message);
+        this.validationErrors = validationErrors;
+    }
+}
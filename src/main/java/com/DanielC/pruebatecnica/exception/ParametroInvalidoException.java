@@ -0,0 +1,10 @@
+package com.DanielC.pruebatecnica.exception;
+
+/**
+ * Excepción cuando un parámetro o encabezado de la petición tiene un valor no admitido
+ */
+public class ParametroInvalidoException extends RuntimeException {
+    public ParametroInvalidoException(String message) {
+        super(message);
+    }
+}
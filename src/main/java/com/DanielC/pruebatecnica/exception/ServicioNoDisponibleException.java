@@ -0,0 +1,11 @@
+package com.DanielC.pruebatecnica.exception;
+
+/**
+ * Excepción cuando una operación no puede completarse temporalmente (servicio deteniéndose o
+ * escritura no confirmada a tiempo)
+ */
+public class ServicioNoDisponibleException extends RuntimeException {
+    public ServicioNoDisponibleException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.DanielC.pruebatecnica.exception;
+
+/**
+ * Excepción cuando un ajuste de stock dejaría el stock de un producto en negativo
+ */
+public class StockInsuficienteException extends RuntimeException {
+    public StockInsuficienteException(String message) {
+        super(message);
+    }
+
+    public StockInsuficienteException(Long id, int delta) {
+        super("Stock insuficiente en el producto con id: " + id + " para aplicar un ajuste de " + delta);
+    }
+}
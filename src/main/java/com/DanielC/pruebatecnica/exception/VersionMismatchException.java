@@ -0,0 +1,15 @@
+package com.DanielC.pruebatecnica.exception;
+
+/**
+ * Excepción cuando la versión enviada en If-Match no coincide con la versión actual de la entidad
+ */
+public class VersionMismatchException extends RuntimeException {
+    public VersionMismatchException(String message) {
+        super(message);
+    }
+
+    public VersionMismatchException(String entidad, Long id, Long versionEsperada, Long versionActual) {
+        super("La entidad " + entidad + " con id: " + id + " fue modificada: versión esperada " + versionEsperada
+                + ", versión actual " + versionActual);
+    }
+}
@@ -48,6 +48,10 @@ public class Franquicia {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Helper methods
     public void addSucursal(Sucursal sucursal) {
         sucursales.add(sucursal);
@@ -28,7 +28,8 @@ import java.util.List;
 public class Sucursal {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sucursales_seq")
+    @SequenceGenerator(name = "sucursales_seq", sequenceName = "sucursales_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre de la sucursal es obligatorio")
@@ -41,6 +42,10 @@ public class Sucursal {
     @JsonBackReference
     private Franquicia franquicia;
 
+    /** Umbral de bajo stock para las alertas; null usa el umbral por defecto */
+    @Column(name = "umbral_bajo_stock")
+    private Integer umbralBajoStock;
+
     @OneToMany(mappedBy = "sucursal", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     @Builder.Default
@@ -54,6 +59,10 @@ public class Sucursal {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Helper methods
     public void addProducto(Producto producto) {
         productos.add(producto);
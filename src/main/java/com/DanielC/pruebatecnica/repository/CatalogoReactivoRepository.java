@@ -0,0 +1,148 @@
+package com.DanielC.pruebatecnica.repository;
+
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio R2DBC de solo lectura sobre las mismas tablas que escribe JPA.
+ * Devuelve directamente los DTOs de respuesta, sin pasar por las entidades.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogoReactivoRepository {
+
+    private static final String SELECT_FRANQUICIAS =
+            "SELECT f.id, f.nombre, f.created_at, f.updated_at, f.version FROM franquicias f";
+
+    private static final String SELECT_SUCURSALES =
+            "SELECT s.id, s.nombre, s.franquicia_id, f.nombre AS franquicia_nombre, " +
+            "s.created_at, s.updated_at, s.version " +
+            "FROM sucursales s JOIN franquicias f ON f.id = s.franquicia_id";
+
+    private static final String SELECT_PRODUCTOS =
+            "SELECT p.id, p.nombre, p.stock, p.sucursal_id, s.nombre AS sucursal_nombre, " +
+            "p.created_at, p.updated_at, p.version " +
+            "FROM productos p JOIN sucursales s ON s.id = p.sucursal_id";
+
+    private final DatabaseClient databaseClient;
+
+    @Value("${app.r2dbc.fetch-size:256}")
+    private int fetchSize;
+
+    public Flux<FranquiciaResponseDTO> findAllFranquicias() {
+        return databaseClient.sql(SELECT_FRANQUICIAS + " ORDER BY f.id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(CatalogoReactivoRepository::franquicia)
+                .all();
+    }
+
+    public Mono<FranquiciaResponseDTO> findFranquiciaById(Long id) {
+        return databaseClient.sql(SELECT_FRANQUICIAS + " WHERE f.id = :id")
+                .bind("id", id)
+                .map(CatalogoReactivoRepository::franquicia)
+                .one();
+    }
+
+    public Flux<SucursalResponseDTO> findAllSucursales() {
+        return databaseClient.sql(SELECT_SUCURSALES + " ORDER BY s.id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(CatalogoReactivoRepository::sucursal)
+                .all();
+    }
+
+    public Flux<SucursalResponseDTO> findSucursalesByFranquiciaId(Long franquiciaId) {
+        return databaseClient.sql(SELECT_SUCURSALES + " WHERE s.franquicia_id = :franquiciaId ORDER BY s.id")
+                .bind("franquiciaId", franquiciaId)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(CatalogoReactivoRepository::sucursal)
+                .all();
+    }
+
+    public Mono<SucursalResponseDTO> findSucursalById(Long id) {
+        return databaseClient.sql(SELECT_SUCURSALES + " WHERE s.id = :id")
+                .bind("id", id)
+                .map(CatalogoReactivoRepository::sucursal)
+                .one();
+    }
+
+    public Flux<ProductoResponseDTO> findAllProductos() {
+        return databaseClient.sql(SELECT_PRODUCTOS + " ORDER BY p.id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(CatalogoReactivoRepository::producto)
+                .all();
+    }
+
+    public Flux<ProductoResponseDTO> findProductosBySucursalId(Long sucursalId) {
+        return databaseClient.sql(SELECT_PRODUCTOS + " WHERE p.sucursal_id = :sucursalId ORDER BY p.id")
+                .bind("sucursalId", sucursalId)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(CatalogoReactivoRepository::producto)
+                .all();
+    }
+
+    public Mono<ProductoResponseDTO> findProductoById(Long id) {
+        return databaseClient.sql(SELECT_PRODUCTOS + " WHERE p.id = :id")
+                .bind("id", id)
+                .map(CatalogoReactivoRepository::producto)
+                .one();
+    }
+
+    public Mono<Boolean> existsFranquiciaById(Long id) {
+        return databaseClient.sql("SELECT 1 FROM franquicias WHERE id = :id")
+                .bind("id", id)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    public Mono<Boolean> existsSucursalById(Long id) {
+        return databaseClient.sql("SELECT 1 FROM sucursales WHERE id = :id")
+                .bind("id", id)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    private static FranquiciaResponseDTO franquicia(Readable row) {
+        return new FranquiciaResponseDTO(
+                row.get("id", Long.class),
+                row.get("nombre", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+
+    private static SucursalResponseDTO sucursal(Readable row) {
+        return new SucursalResponseDTO(
+                row.get("id", Long.class),
+                row.get("nombre", String.class),
+                row.get("franquicia_id", Long.class),
+                row.get("franquicia_nombre", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+
+    private static ProductoResponseDTO producto(Readable row) {
+        return ProductoResponseDTO.builder()
+                .id(row.get("id", Long.class))
+                .nombre(row.get("nombre", String.class))
+                .stock(row.get("stock", Integer.class))
+                .sucursalId(row.get("sucursal_id", Long.class))
+                .sucursalNombre(row.get("sucursal_nombre", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
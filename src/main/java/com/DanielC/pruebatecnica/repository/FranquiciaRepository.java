@@ -1,9 +1,15 @@
 package com.DanielC.pruebatecnica.repository;
 
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
 import com.DanielC.pruebatecnica.model.Franquicia;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -13,5 +19,25 @@ import java.util.Optional;
 public interface FranquiciaRepository extends JpaRepository<Franquicia, Long> {
     Optional<Franquicia> findByNombre(String nombre);
     boolean existsByNombre(String nombre);
+    List<Franquicia> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO(f.id, f.nombre, f.createdAt, f.updatedAt, f.version) " +
+            "FROM Franquicia f ORDER BY f.id")
+    List<FranquiciaResponseDTO> findAllResumen();
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO(f.id, f.nombre, f.createdAt, f.updatedAt, f.version) " +
+            "FROM Franquicia f WHERE f.id = :id")
+    Optional<FranquiciaResponseDTO> findResumenById(@Param("id") Long id);
+
+    // Estado agregado para ETag / Last-Modified (ver EstadoAgregadoDTO)
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(f.updatedAt), count(f), sum(f.version)) FROM Franquicia f")
+    EstadoAgregadoDTO findEstado();
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(f.updatedAt), count(f), sum(f.version)) FROM Franquicia f WHERE f.id = :id")
+    EstadoAgregadoDTO findEstadoById(@Param("id") Long id);
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(f.updatedAt), count(f), sum(f.version)) FROM Franquicia f " +
+            "WHERE f.id IN (SELECT s.franquicia.id FROM Sucursal s WHERE s.id = :sucursalId)")
+    EstadoAgregadoDTO findEstadoBySucursalId(@Param("sucursalId") Long sucursalId);
 }
 
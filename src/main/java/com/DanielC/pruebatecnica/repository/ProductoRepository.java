@@ -1,12 +1,25 @@
 package com.DanielC.pruebatecnica.repository;
 
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.InventarioSucursalDTO;
+import com.DanielC.pruebatecnica.dto.ProductoMaxStockDTO;
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
 import com.DanielC.pruebatecnica.model.Producto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para Producto
@@ -14,12 +27,126 @@ import java.util.List;
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
 
+    @Override
+    @EntityGraph(attributePaths = "sucursal")
+    List<Producto> findAll();
+
+    @EntityGraph(attributePaths = "sucursal")
+    Optional<Producto> findConSucursalById(Long id);
+
+    @EntityGraph(attributePaths = "sucursal")
     List<Producto> findBySucursalId(Long sucursalId);
 
+    @EntityGraph(attributePaths = "sucursal")
+    List<Producto> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT p FROM Producto p JOIN FETCH p.sucursal ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Producto> streamAllByOrderByIdAsc();
+
     @Query("SELECT p FROM Producto p WHERE p.sucursal.franquicia.id = :franquiciaId")
     List<Producto> findByFranquiciaId(@Param("franquiciaId") Long franquiciaId);
 
-    @Query("SELECT p FROM Producto p WHERE p.sucursal.id = :sucursalId ORDER BY p.stock DESC")
-    List<Producto> findTopBySucursalIdOrderByStockDesc(@Param("sucursalId") Long sucursalId);
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.ProductoResponseDTO(p.id, p.nombre, p.stock, s.id, s.nombre, p.createdAt, p.updatedAt, p.version) " +
+            "FROM Producto p JOIN p.sucursal s WHERE s.franquicia.id = :franquiciaId ORDER BY p.id")
+    List<ProductoResponseDTO> findResumenByFranquiciaId(@Param("franquiciaId") Long franquiciaId);
+
+    @Query("SELECT p.id FROM Producto p WHERE p.sucursal.franquicia.id = :franquiciaId")
+    List<Long> findIdsByFranquiciaId(@Param("franquiciaId") Long franquiciaId);
+
+    @Query("SELECT DISTINCT p.sucursal.id FROM Producto p WHERE p.id IN :ids")
+    List<Long> findSucursalIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Estado agregado para ETag / Last-Modified (ver EstadoAgregadoDTO)
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(p.updatedAt), count(p), sum(p.version)) FROM Producto p")
+    EstadoAgregadoDTO findEstado();
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(p.updatedAt), count(p), sum(p.version)) FROM Producto p WHERE p.id = :id")
+    EstadoAgregadoDTO findEstadoById(@Param("id") Long id);
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(p.updatedAt), count(p), sum(p.version)) FROM Producto p " +
+            "WHERE p.sucursal.id = :sucursalId")
+    EstadoAgregadoDTO findEstadoBySucursalId(@Param("sucursalId") Long sucursalId);
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(p.updatedAt), count(p), sum(p.version)) FROM Producto p " +
+            "WHERE p.sucursal.franquicia.id = :franquiciaId")
+    EstadoAgregadoDTO findEstadoByFranquiciaId(@Param("franquiciaId") Long franquiciaId);
+
+    /**
+     * Indicadores de inventario de cada sucursal de la franquicia (las sucursales sin productos
+     * también aparecen). Bajo stock: stock menor que umbral.
+     */
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.InventarioSucursalDTO(s.id, s.nombre, count(p), sum(p.stock), " +
+            "min(p.stock), max(p.stock), avg(p.stock), sum(CASE WHEN p.stock < :umbral THEN 1 ELSE 0 END)) " +
+            "FROM Sucursal s LEFT JOIN Producto p ON p.sucursal = s " +
+            "WHERE s.franquicia.id = :franquiciaId " +
+            "GROUP BY s.id, s.nombre ORDER BY s.id")
+    List<InventarioSucursalDTO> findInventarioPorSucursal(@Param("franquiciaId") Long franquiciaId,
+                                                          @Param("umbral") int umbral);
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.InventarioSucursalDTO(s.id, s.nombre, count(p), sum(p.stock), " +
+            "min(p.stock), max(p.stock), avg(p.stock), sum(CASE WHEN p.stock < :umbral THEN 1 ELSE 0 END)) " +
+            "FROM Sucursal s LEFT JOIN Producto p ON p.sucursal = s " +
+            "WHERE s.franquicia.id = :franquiciaId AND s.id IN :sucursalIds " +
+            "GROUP BY s.id, s.nombre ORDER BY s.id")
+    List<InventarioSucursalDTO> findInventarioPorSucursalIn(@Param("franquiciaId") Long franquiciaId,
+                                                            @Param("sucursalIds") Collection<Long> sucursalIds,
+                                                            @Param("umbral") int umbral);
+
+    /**
+     * Suma delta al stock en una sola sentencia, sin leer antes el producto.
+     * Devuelve 0 si el producto no existe o si el stock quedaría negativo.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Producto p SET p.stock = p.stock + :delta, p.updatedAt = LOCAL DATETIME, " +
+            "p.version = p.version + 1 " +
+            "WHERE p.id = :id AND p.stock + :delta >= 0")
+    int ajustarStock(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Los k productos con mayor stock de cada sucursal de la franquicia, numerados con ROW_NUMBER
+     * en la base de datos. En caso de empate en el stock gana el producto con menor id.
+     */
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.ProductoMaxStockDTO(r.id, r.nombre, r.stock, r.sucursalId, r.sucursalNombre) " +
+            "FROM (SELECT p.id AS id, p.nombre AS nombre, p.stock AS stock, s.id AS sucursalId, s.nombre AS sucursalNombre, " +
+            "ROW_NUMBER() OVER (PARTITION BY s.id ORDER BY p.stock DESC, p.id) AS posicion " +
+            "FROM Producto p JOIN p.sucursal s WHERE s.franquicia.id = :franquiciaId) r " +
+            "WHERE r.posicion <= :k " +
+            "ORDER BY r.sucursalId, r.posicion")
+    List<ProductoMaxStockDTO> findTopStockPorSucursalByFranquiciaId(@Param("franquiciaId") Long franquiciaId,
+                                                                    @Param("k") int k);
+
+    /**
+     * Los productos con mayor stock de toda la franquicia; el tamaño lo fija el Limit
+     */
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.ProductoMaxStockDTO(p.id, p.nombre, p.stock, s.id, s.nombre) " +
+            "FROM Producto p JOIN p.sucursal s " +
+            "WHERE s.franquicia.id = :franquiciaId " +
+            "ORDER BY p.stock DESC, p.id")
+    List<ProductoMaxStockDTO> findTopStockByFranquiciaId(@Param("franquiciaId") Long franquiciaId, Limit limit);
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.ProductoMaxStockDTO(p.id, p.nombre, p.stock, s.id, s.nombre) " +
+            "FROM Producto p JOIN p.sucursal s " +
+            "WHERE NOT EXISTS (SELECT 1 FROM Producto o WHERE o.sucursal = s " +
+            "AND (o.stock > p.stock OR (o.stock = p.stock AND o.id < p.id))) " +
+            "ORDER BY s.id")
+    List<ProductoMaxStockDTO> findMaxStockPorSucursal();
+
+    /**
+     * Equivalente de findMaxStockPorSucursal con DISTINCT ON (PostgreSQL y H2): recorre
+     * idx_productos_sucursal_stock en orden y se queda con la primera fila de cada sucursal.
+     */
+    @Query(value = "SELECT DISTINCT ON (p.sucursal_id) p.id AS productoId, p.nombre AS productoNombre, " +
+            "p.stock AS stock, s.id AS sucursalId, s.nombre AS sucursalNombre " +
+            "FROM productos p JOIN sucursales s ON s.id = p.sucursal_id " +
+            "ORDER BY p.sucursal_id, p.stock DESC, p.id", nativeQuery = true)
+    List<ProductoMaxStockDTO> findMaxStockPorSucursalDistinctOn();
+
+    @Query(value = "SELECT DISTINCT ON (p.sucursal_id) p.id AS productoId, p.nombre AS productoNombre, " +
+            "p.stock AS stock, s.id AS sucursalId, s.nombre AS sucursalNombre " +
+            "FROM productos p JOIN sucursales s ON s.id = p.sucursal_id " +
+            "WHERE s.franquicia_id = :franquiciaId " +
+            "ORDER BY p.sucursal_id, p.stock DESC, p.id", nativeQuery = true)
+    List<ProductoMaxStockDTO> findMaxStockPorSucursalByFranquiciaIdDistinctOn(@Param("franquiciaId") Long franquiciaId);
 }
 
@@ -1,16 +1,64 @@
 package com.DanielC.pruebatecnica.repository;
 
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
 import com.DanielC.pruebatecnica.model.Sucursal;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para Sucursal
  */
 @Repository
 public interface SucursalRepository extends JpaRepository<Sucursal, Long> {
+    @Override
+    @EntityGraph(attributePaths = {"franquicia", "productos"})
+    List<Sucursal> findAll();
+
+    @EntityGraph(attributePaths = {"franquicia", "productos"})
+    Optional<Sucursal> findConDetalleById(Long id);
+
+    @EntityGraph(attributePaths = {"franquicia", "productos"})
     List<Sucursal> findByFranquiciaId(Long franquiciaId);
-}
 
+    // Sin fetch de productos para que el LIMIT se aplique en SQL; se cargan por lotes
+    @EntityGraph(attributePaths = "franquicia")
+    List<Sucursal> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.SucursalResponseDTO(s.id, s.nombre, f.id, f.nombre, s.createdAt, s.updatedAt, s.version) " +
+            "FROM Sucursal s JOIN s.franquicia f ORDER BY s.id")
+    List<SucursalResponseDTO> findAllResumen();
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.SucursalResponseDTO(s.id, s.nombre, f.id, f.nombre, s.createdAt, s.updatedAt, s.version) " +
+            "FROM Sucursal s JOIN s.franquicia f WHERE f.id = :franquiciaId ORDER BY s.id")
+    List<SucursalResponseDTO> findResumenByFranquiciaId(@Param("franquiciaId") Long franquiciaId);
+
+    @Query("SELECT s.id FROM Sucursal s WHERE s.franquicia.id = :franquiciaId")
+    List<Long> findIdsByFranquiciaId(@Param("franquiciaId") Long franquiciaId);
+
+    @Query("SELECT DISTINCT s.franquicia.id FROM Sucursal s WHERE s.id IN :ids")
+    List<Long> findFranquiciaIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Estado agregado para ETag / Last-Modified (ver EstadoAgregadoDTO)
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(s.updatedAt), count(s), sum(s.version)) FROM Sucursal s")
+    EstadoAgregadoDTO findEstado();
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(s.updatedAt), count(s), sum(s.version)) FROM Sucursal s WHERE s.id = :id")
+    EstadoAgregadoDTO findEstadoById(@Param("id") Long id);
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(s.updatedAt), count(s), sum(s.version)) FROM Sucursal s " +
+            "WHERE s.franquicia.id = :franquiciaId")
+    EstadoAgregadoDTO findEstadoByFranquiciaId(@Param("franquiciaId") Long franquiciaId);
+
+    @Query("SELECT new com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO(max(s.updatedAt), count(s), sum(s.version)) FROM Sucursal s " +
+            "WHERE s.id IN (SELECT p.sucursal.id FROM Producto p WHERE p.id = :productoId)")
+    EstadoAgregadoDTO findEstadoByProductoId(@Param("productoId") Long productoId);
+}
@@ -0,0 +1,399 @@
+package com.DanielC.pruebatecnica.service;
+
+import com.DanielC.pruebatecnica.dto.AlertaStockDTO;
+import com.DanielC.pruebatecnica.dto.TipoAlertaStock;
+import com.DanielC.pruebatecnica.model.Producto;
+import com.DanielC.pruebatecnica.model.Sucursal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Alertas de bajo stock: detecta los cruces del umbral de cada sucursal y los reparte por SSE.
+ * <p>
+ * Las alertas confirmadas se escriben en un anillo de tamaño fijo y cada suscriptor lo recorre
+ * con su propio cursor desde un pool de envío. Publicar no espera a ningún suscriptor: uno lento
+ * se queda atrás, y si el anillo le da la vuelta salta a la alerta más antigua que conserva y
+ * recibe un evento alertas-perdidas con el número de alertas que no llegó a ver.
+ * <p>
+ * Cada latido-ms los suscriptores sin alertas reciben un comentario SSE: mantiene viva la conexión
+ * en proxies y detecta a los clientes desconectados sin esperar a la próxima alerta. Un envío que
+ * sigue bloqueado tras envio-maximo-ms (el cliente no lee) da de baja al suscriptor y el pool suma
+ * un hilo mientras dure, para que los clientes lentos no dejen sin hilos al resto; la escritura
+ * bloqueada termina con el timeout de escritura de Tomcat (server.tomcat.connection-timeout).
+ * <p>
+ * Al cerrar, los suscriptores se completan antes del apagado ordenado del servidor web (fase de
+ * ciclo de vida mayor), que si no esperaría a que cada flujo SSE abierto termine por su cuenta.
+ */
+@Component
+@Slf4j
+public class AlertasStock implements SmartLifecycle {
+
+    private final int umbralPorDefecto;
+    private final long timeoutMs;
+    private final long latidoMs;
+    private final long envioMaximoMs;
+    private final int capacidad;
+    private final AtomicReferenceArray<AlertaStockDTO> anillo;
+    private final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor envios;
+    private ScheduledExecutorService planificador;
+    private volatile boolean activo;
+    private volatile boolean detenido;
+
+    /** Última secuencia escrita; solo se modifica con el monitor de la instancia */
+    private long ultimaSecuencia;
+    /** Última secuencia visible para los suscriptores */
+    private volatile long publicada;
+
+    public AlertasStock(@Value("${app.alertas.umbral-por-defecto:10}") int umbralPorDefecto,
+                        @Value("${app.alertas.capacidad:1024}") int capacidad,
+                        @Value("${app.alertas.hilos-envio:2}") int hilosEnvio,
+                        @Value("${app.alertas.sse-timeout-ms:1800000}") long timeoutMs,
+                        @Value("${app.alertas.latido-ms:15000}") long latidoMs,
+                        @Value("${app.alertas.envio-maximo-ms:5000}") long envioMaximoMs) {
+        this.umbralPorDefecto = umbralPorDefecto;
+        this.capacidad = capacidad;
+        this.timeoutMs = timeoutMs;
+        this.latidoMs = latidoMs;
+        this.envioMaximoMs = envioMaximoMs;
+        this.anillo = new AtomicReferenceArray<>(capacidad);
+        AtomicInteger hilos = new AtomicInteger();
+        this.envios = new ThreadPoolExecutor(hilosEnvio, hilosEnvio, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread hilo = new Thread(r, "alertas-stock-" + hilos.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @Override
+    public void start() {
+        planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "alertas-stock-latido");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        planificador.scheduleAtFixedRate(this::latido, latidoMs, latidoMs, TimeUnit.MILLISECONDS);
+        long revision = Math.max(envioMaximoMs / 2, 100);
+        planificador.scheduleAtFixedRate(this::vigilarEnvios, revision, revision, TimeUnit.MILLISECONDS);
+        activo = true;
+    }
+
+    /**
+     * Completa todos los flujos SSE sin esperar a los envíos en curso: un suscriptor ocupado se
+     * completa cuando su envío termina
+     */
+    @Override
+    public void stop() {
+        detenido = true;
+        activo = false;
+        planificador.shutdownNow();
+        suscriptores.forEach(Suscriptor::terminar);
+        envios.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    public int getUmbralPorDefecto() {
+        return umbralPorDefecto;
+    }
+
+    public int umbralDe(Sucursal sucursal) {
+        return sucursal.getUmbralBajoStock() != null ? sucursal.getUmbralBajoStock() : umbralPorDefecto;
+    }
+
+    /**
+     * Compara el stock anterior y el actual del producto con el umbral de su sucursal; si lo cruza,
+     * la alerta se publica cuando la transacción confirma
+     */
+    public void stockCambiado(Producto producto, int stockAnterior) {
+        Sucursal sucursal = producto.getSucursal();
+        int umbral = umbralDe(sucursal);
+        int stockActual = producto.getStock();
+        TipoAlertaStock tipo;
+        if (stockAnterior >= umbral && stockActual < umbral) {
+            tipo = TipoAlertaStock.BAJO_STOCK;
+        } else if (stockAnterior < umbral && stockActual >= umbral) {
+            tipo = TipoAlertaStock.REPUESTO;
+        } else {
+            return;
+        }
+        AlertaStockDTO alerta = AlertaStockDTO.builder()
+                .tipo(tipo)
+                .productoId(producto.getId())
+                .productoNombre(producto.getNombre())
+                .sucursalId(sucursal.getId())
+                .sucursalNombre(sucursal.getNombre())
+                .franquiciaId(sucursal.getFranquicia().getId())
+                .stockAnterior(stockAnterior)
+                .stockActual(stockActual)
+                .umbral(umbral)
+                .fecha(LocalDateTime.now())
+                .build();
+        alConfirmar(() -> publicar(alerta));
+    }
+
+    /**
+     * Suscribe un cliente SSE, opcionalmente filtrado por franquicia o sucursal. Con ultimoId
+     * (cabecera Last-Event-ID) se reenvían las alertas posteriores que sigan en el anillo.
+     */
+    public SseEmitter suscribir(Long franquiciaId, Long sucursalId, Long ultimoId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        long actual = publicada;
+        // Un id mayor que la última secuencia viene de antes de un reinicio: se empieza desde ahora
+        long cursor = ultimoId == null || ultimoId > actual ? actual : Math.max(ultimoId, 0);
+        if (detenido) {
+            // Aplicación cerrándose: el cliente reconectará contra otra instancia o tras el reinicio
+            emitter.complete();
+            return emitter;
+        }
+        Suscriptor suscriptor = new Suscriptor(emitter, franquiciaId, sucursalId, cursor);
+        emitter.onCompletion(suscriptor::cerrar);
+        emitter.onTimeout(suscriptor::cerrar);
+        emitter.onError(e -> suscriptor.cerrar());
+        suscriptores.add(suscriptor);
+        if (detenido) {
+            // stop() recorrió la lista antes de añadirlo
+            suscriptor.terminar();
+            return emitter;
+        }
+        try {
+            // Fuerza el envío de las cabeceras para que el cliente sepa que está suscrito
+            emitter.send(SseEmitter.event().comment("suscrito"));
+        } catch (IOException e) {
+            suscriptor.cerrar();
+            return emitter;
+        }
+        log.debug("Suscriptor de alertas de stock (franquicia {}, sucursal {}) desde la secuencia {}",
+                franquiciaId, sucursalId, cursor);
+        suscriptor.programar();
+        return emitter;
+    }
+
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    void publicar(AlertaStockDTO alerta) {
+        synchronized (this) {
+            long secuencia = ultimaSecuencia + 1;
+            alerta.setSecuencia(secuencia);
+            anillo.set(indice(secuencia), alerta);
+            ultimaSecuencia = secuencia;
+            publicada = secuencia;
+        }
+        log.debug("Alerta de stock {} #{}: producto {} en sucursal {} ({} -> {}, umbral {})",
+                alerta.getTipo(), alerta.getSecuencia(), alerta.getProductoId(), alerta.getSucursalId(),
+                alerta.getStockAnterior(), alerta.getStockActual(), alerta.getUmbral());
+        suscriptores.forEach(Suscriptor::programar);
+    }
+
+    private void latido() {
+        suscriptores.forEach(Suscriptor::latido);
+    }
+
+    private void vigilarEnvios() {
+        long limite = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(envioMaximoMs);
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.marcarRezagado(limite)) {
+                log.warn("Suscriptor de alertas de stock (franquicia {}, sucursal {}) sin leer durante más de {} ms: se da de baja",
+                        suscriptor.franquiciaId, suscriptor.sucursalId, envioMaximoMs);
+                suscriptor.cerrar();
+            }
+        }
+    }
+
+    private synchronized void ajustarHilos(int delta) {
+        if (delta > 0) {
+            envios.setMaximumPoolSize(envios.getMaximumPoolSize() + delta);
+            envios.setCorePoolSize(envios.getCorePoolSize() + delta);
+        } else {
+            envios.setCorePoolSize(envios.getCorePoolSize() + delta);
+            envios.setMaximumPoolSize(envios.getMaximumPoolSize() + delta);
+        }
+    }
+
+    private int indice(long secuencia) {
+        return (int) (secuencia % capacidad);
+    }
+
+    // Una alerta de una transacción que luego revierte no debe llegar a los suscriptores
+    private static void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Cursor de un cliente SSE. Solo una tarea de envío por suscriptor a la vez (programado), así
+     * que el cursor no necesita sincronización. Quien obtiene programado es también el único que
+     * usa el emisor: complete() espera al envío en curso, así que solo se llama con programado.
+     */
+    private final class Suscriptor {
+        private final SseEmitter emitter;
+        private final Long franquiciaId;
+        private final Long sucursalId;
+        private final AtomicBoolean programado = new AtomicBoolean();
+        private final AtomicBoolean latidoPendiente = new AtomicBoolean();
+        private volatile boolean cerrado;
+        private volatile boolean completar;
+        /** Inicio (System.nanoTime()) del envío en curso o 0, y si se dio de baja por él; con el monitor del suscriptor */
+        private long envioDesde;
+        private boolean rezagado;
+        private long cursor;
+
+        private Suscriptor(SseEmitter emitter, Long franquiciaId, Long sucursalId, long cursor) {
+            this.emitter = emitter;
+            this.franquiciaId = franquiciaId;
+            this.sucursalId = sucursalId;
+            this.cursor = cursor;
+        }
+
+        void programar() {
+            if (cerrado || (cursor >= publicada && !latidoPendiente.get()) || !programado.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                envios.execute(this::enviar);
+            } catch (RejectedExecutionException e) {
+                programado.set(false);
+            }
+        }
+
+        void latido() {
+            latidoPendiente.set(true);
+            programar();
+        }
+
+        /**
+         * Si hay un envío en curso desde antes de limite (System.nanoTime()), suma un hilo al pool
+         * mientras siga bloqueado y devuelve true; solo una vez por envío
+         */
+        synchronized boolean marcarRezagado(long limite) {
+            if (envioDesde == 0 || rezagado || envioDesde - limite > 0) {
+                return false;
+            }
+            rezagado = true;
+            ajustarHilos(1);
+            return true;
+        }
+
+        private void enviar() {
+            try {
+                boolean latido = latidoPendiente.getAndSet(false);
+                long hasta = publicada;
+                long desde = cursor + 1;
+                long perdidas = hasta - capacidad + 1 - desde;
+                if (perdidas > 0) {
+                    enviar(SseEmitter.event().name("alertas-perdidas").data(perdidas));
+                    desde += perdidas;
+                    latido = false;
+                }
+                for (long secuencia = desde; secuencia <= hasta && !cerrado; secuencia++) {
+                    AlertaStockDTO alerta = anillo.get(indice(secuencia));
+                    if (alerta == null || alerta.getSecuencia() != secuencia) {
+                        // El anillo dio la vuelta durante el envío: la siguiente pasada cuenta las perdidas
+                        break;
+                    }
+                    if (coincide(alerta)) {
+                        enviar(SseEmitter.event()
+                                .id(Long.toString(secuencia))
+                                .name(alerta.getTipo().name())
+                                .data(alerta, MediaType.APPLICATION_JSON));
+                        latido = false;
+                    }
+                    cursor = secuencia;
+                }
+                if (latido && !cerrado) {
+                    enviar(SseEmitter.event().comment("latido"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado o emisor ya completado
+                cerrar();
+            } finally {
+                programado.set(false);
+            }
+            if (completar) {
+                completarSiLibre();
+            } else {
+                // Alertas publicadas mientras se enviaba, cuyo programar() encontró la tarea en curso
+                programar();
+            }
+        }
+
+        private void enviar(SseEmitter.SseEventBuilder evento) throws IOException {
+            synchronized (this) {
+                envioDesde = System.nanoTime();
+            }
+            try {
+                emitter.send(evento);
+            } finally {
+                synchronized (this) {
+                    envioDesde = 0;
+                    if (rezagado) {
+                        // Dado de baja por vigilarEnvios(): devuelve el hilo que se sumó al pool
+                        rezagado = false;
+                        ajustarHilos(-1);
+                    }
+                }
+            }
+        }
+
+        private boolean coincide(AlertaStockDTO alerta) {
+            return (franquiciaId == null || franquiciaId.equals(alerta.getFranquiciaId()))
+                    && (sucursalId == null || sucursalId.equals(alerta.getSucursalId()));
+        }
+
+        void cerrar() {
+            cerrado = true;
+            suscriptores.remove(this);
+        }
+
+        /**
+         * Cierre de la aplicación: completa el flujo ahora si no hay envío en curso o, si lo hay,
+         * cuando termine
+         */
+        void terminar() {
+            completar = true;
+            cerrar();
+            completarSiLibre();
+        }
+
+        private void completarSiLibre() {
+            // Con programado tomado ya no se enviará nada más por este emisor
+            if (programado.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.DanielC.pruebatecnica.service;
+
+import com.DanielC.pruebatecnica.config.CacheConfig;
+import com.DanielC.pruebatecnica.dto.CacheEstadisticasDTO;
+import com.DanielC.pruebatecnica.dto.FranquiciaExpand;
+import com.DanielC.pruebatecnica.model.Producto;
+import com.DanielC.pruebatecnica.model.Sucursal;
+import com.DanielC.pruebatecnica.repository.ProductoRepository;
+import com.DanielC.pruebatecnica.repository.SucursalRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Invalidación de las cachés de lectura por id.
+ * <p>
+ * Las respuestas cacheadas incluyen datos de las entidades relacionadas (nombre de la sucursal en
+ * el producto, productos en la sucursal, sucursales en la franquicia), por eso cada cambio invalida
+ * también las entradas de sus padres e hijos. Las invalidaciones se aplican tras el commit.
+ * Los mismos cambios se trasladan al resumen de inventario (InventarioFranquicias).
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogoCache {
+
+    private final CacheManager cacheManager;
+    private final ProductoRepository productoRepository;
+    private final SucursalRepository sucursalRepository;
+    private final InventarioFranquicias inventarioFranquicias;
+
+    /**
+     * Producto creado, modificado o eliminado
+     */
+    public void invalidarProducto(Producto producto) {
+        cache(CacheConfig.PRODUCTOS).evict(producto.getId());
+        invalidarContenedores(producto.getSucursal());
+    }
+
+    /**
+     * Productos modificados fuera de JPA (p. ej. el write-behind de stock)
+     */
+    public void invalidarProductos(Collection<Long> productoIds) {
+        if (productoIds.isEmpty()) {
+            return;
+        }
+        Cache productos = cache(CacheConfig.PRODUCTOS);
+        productoIds.forEach(productos::evict);
+        List<Long> sucursalIds = productoRepository.findSucursalIdsByIdIn(productoIds);
+        sucursalIds.forEach(cache(CacheConfig.SUCURSALES)::evict);
+        for (Long franquiciaId : sucursalRepository.findFranquiciaIdsByIdIn(sucursalIds)) {
+            evictFranquicia(franquiciaId);
+            // Las sucursales de otras franquicias no aparecen en la consulta filtrada por franquicia
+            inventarioFranquicias.sucursalesModificadas(franquiciaId, sucursalIds);
+        }
+    }
+
+    /**
+     * Cambio en los productos de una sucursal: se invalidan la sucursal y su franquicia
+     */
+    public void invalidarContenedores(Sucursal sucursal) {
+        cache(CacheConfig.SUCURSALES).evict(sucursal.getId());
+        evictFranquicia(sucursal.getFranquicia().getId());
+        inventarioFranquicias.sucursalesModificadas(sucursal.getFranquicia().getId(), List.of(sucursal.getId()));
+    }
+
+    /**
+     * Cambio en las sucursales de una franquicia
+     */
+    public void invalidarEntradasFranquicia(Long franquiciaId) {
+        evictFranquicia(franquiciaId);
+        inventarioFranquicias.franquiciaModificada(franquiciaId);
+    }
+
+    /**
+     * Sucursal renombrada o eliminada: sus productos cacheados llevan el nombre de la sucursal
+     */
+    public void invalidarSucursal(Sucursal sucursal) {
+        invalidarContenedores(sucursal);
+        Cache productos = cache(CacheConfig.PRODUCTOS);
+        sucursal.getProductos().forEach(producto -> productos.evict(producto.getId()));
+    }
+
+    /**
+     * Franquicia renombrada: sus sucursales cacheadas llevan el nombre de la franquicia
+     */
+    public void invalidarFranquicia(Long franquiciaId) {
+        invalidarEntradasFranquicia(franquiciaId);
+        sucursalRepository.findIdsByFranquiciaId(franquiciaId).forEach(cache(CacheConfig.SUCURSALES)::evict);
+    }
+
+    /**
+     * Franquicia eliminada: se invalida en cascada con sus sucursales y productos
+     */
+    public void invalidarFranquiciaEliminada(Long franquiciaId) {
+        invalidarFranquicia(franquiciaId);
+        productoRepository.findIdsByFranquiciaId(franquiciaId).forEach(cache(CacheConfig.PRODUCTOS)::evict);
+    }
+
+    public List<CacheEstadisticasDTO> obtenerEstadisticas() {
+        return Stream.of(CacheConfig.FRANQUICIAS, CacheConfig.SUCURSALES, CacheConfig.PRODUCTOS)
+                .map(nombre -> {
+                    com.github.benmanes.caffeine.cache.Cache<Object, Object> nativa = caffeine(nombre);
+                    CacheStats stats = nativa.stats();
+                    return CacheEstadisticasDTO.builder()
+                            .nombre(nombre)
+                            .tamano(nativa.estimatedSize())
+                            .hits(stats.hitCount())
+                            .misses(stats.missCount())
+                            .hitRate(stats.hitRate())
+                            .evictions(stats.evictionCount())
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Las franquicias se cachean por (id, expand)
+    private void evictFranquicia(Long franquiciaId) {
+        Cache franquicias = cache(CacheConfig.FRANQUICIAS);
+        for (FranquiciaExpand expand : FranquiciaExpand.values()) {
+            franquicias.evict(new SimpleKey(franquiciaId, expand));
+        }
+    }
+
+    private Cache cache(String nombre) {
+        return cacheManager.getCache(nombre);
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine(String nombre) {
+        Cache cache = cache(nombre);
+        if (cache instanceof TransactionAwareCacheDecorator decorador) {
+            cache = decorador.getTargetCache();
+        }
+        return ((CaffeineCache) cache).getNativeCache();
+    }
+}
@@ -0,0 +1,100 @@
+package com.DanielC.pruebatecnica.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Arma árboles de DTOs (franquicia → sucursales → productos) a partir de listas planas.
+ * Los hijos se asignan a su padre buscando su id en un arreglo long[] ordenado, sin mapas con
+ * claves Long. A partir de app.franquicias.ensamblado.umbral hijos el trabajo se reparte en un
+ * ForkJoinPool acotado; por debajo se hace en el hilo de la petición.
+ */
+@Component
+@Slf4j
+public class EnsambladorCatalogo {
+
+    private final int umbral;
+    private final ForkJoinPool pool;
+
+    public EnsambladorCatalogo(@Value("${app.franquicias.ensamblado.umbral:5000}") int umbral,
+                               @Value("${app.franquicias.ensamblado.paralelismo:0}") int paralelismo) {
+        int hilos = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+        this.umbral = umbral;
+        this.pool = new ForkJoinPool(hilos);
+        log.info("Ensamblado paralelo de DTOs: umbral {} elementos, {} hilos", umbral, hilos);
+    }
+
+    @PreDestroy
+    public void detener() {
+        pool.shutdown();
+    }
+
+    /**
+     * Asigna a cada padre la lista de sus hijos, conservando el orden en que llegan los hijos.
+     * Los padres deben venir ordenados por id; los hijos cuyo padre no está en la lista se descartan.
+     */
+    public <P, H> void agrupar(List<P> padres, ToLongFunction<P> idPadre,
+                               List<H> hijos, ToLongFunction<H> idPadreDelHijo,
+                               BiConsumer<P, List<H>> asignar) {
+        long[] ids = new long[padres.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idPadre.applyAsLong(padres.get(i));
+        }
+
+        boolean paralelo = hijos.size() >= umbral && pool.getParallelism() > 1;
+
+        // Posición del padre de cada hijo (búsqueda binaria sobre los ids)
+        int[] destino = new int[hijos.size()];
+        recorrer(hijos.size(), paralelo, i -> destino[i] = Arrays.binarySearch(ids, idPadreDelHijo.applyAsLong(hijos.get(i))));
+
+        // Ordenación por conteo: inicio[p]..inicio[p + 1] son los hijos del padre p
+        int[] inicio = new int[ids.length + 1];
+        for (int d : destino) {
+            if (d >= 0) {
+                inicio[d + 1]++;
+            }
+        }
+        for (int p = 0; p < ids.length; p++) {
+            inicio[p + 1] += inicio[p];
+        }
+        Object[] ordenados = new Object[inicio[ids.length]];
+        int[] siguiente = Arrays.copyOf(inicio, ids.length);
+        for (int i = 0; i < destino.length; i++) {
+            if (destino[i] >= 0) {
+                ordenados[siguiente[destino[i]]++] = hijos.get(i);
+            }
+        }
+
+        recorrer(ids.length, paralelo, p -> {
+            List<H> propios = new ArrayList<>(inicio[p + 1] - inicio[p]);
+            for (int i = inicio[p]; i < inicio[p + 1]; i++) {
+                @SuppressWarnings("unchecked")
+                H hijo = (H) ordenados[i];
+                propios.add(hijo);
+            }
+            asignar.accept(padres.get(p), propios);
+        });
+    }
+
+    private void recorrer(int tamano, boolean paralelo, IntConsumer accion) {
+        if (!paralelo) {
+            for (int i = 0; i < tamano; i++) {
+                accion.accept(i);
+            }
+            return;
+        }
+        // Un stream paralelo lanzado desde una tarea del pool usa ese pool y no el común
+        pool.submit(() -> IntStream.range(0, tamano).parallel().forEach(accion)).join();
+    }
+}
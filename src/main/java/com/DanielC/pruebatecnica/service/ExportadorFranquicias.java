@@ -0,0 +1,220 @@
+package com.DanielC.pruebatecnica.service;
+
+import com.DanielC.pruebatecnica.dto.FranquiciaExpand;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Escribe el listado de franquicias como un arreglo JSON directamente desde cursores JDBC.
+ * Cada fila se escribe en cuanto se lee, así que la memoria usada no depende del tamaño del
+ * catálogo. Las franquicias se recorren por lotes de ids (keyset) para que la base de datos solo
+ * tenga que ordenar un lote antes de devolver la primera fila.
+ * El JSON es el mismo que el de List&lt;FranquiciaResponseDTO&gt; para cada nivel de expand.
+ */
+@Component
+@Timed(value = "servicio.invocaciones", histogram = true)
+@Slf4j
+public class ExportadorFranquicias {
+
+    private static final String SQL_FRANQUICIAS =
+            "SELECT f.id AS f_id, f.nombre AS f_nombre, f.created_at AS f_created_at, " +
+            "f.updated_at AS f_updated_at, f.version AS f_version";
+
+    private static final String SQL_SUCURSALES =
+            ", s.id AS s_id, s.nombre AS s_nombre, s.created_at AS s_created_at, " +
+            "s.updated_at AS s_updated_at, s.version AS s_version";
+
+    private static final String SQL_PRODUCTOS =
+            ", p.id AS p_id, p.nombre AS p_nombre, p.stock AS p_stock, p.created_at AS p_created_at, " +
+            "p.updated_at AS p_updated_at, p.version AS p_version";
+
+    private static final String SQL_LOTE =
+            "SELECT id FROM franquicias WHERE id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int franquiciasPorLote;
+
+    public ExportadorFranquicias(DataSource dataSource, ObjectMapper objectMapper,
+                                 @Value("${app.franquicias.export.fetch-size:500}") int fetchSize,
+                                 @Value("${app.franquicias.export.franquicias-por-lote:10}") int franquiciasPorLote) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+        this.franquiciasPorLote = Math.max(franquiciasPorLote, 1);
+    }
+
+    /**
+     * Escribe todas las franquicias con el nivel de detalle indicado.
+     * La transacción de solo lectura permite que drivers como el de PostgreSQL usen el fetch size como cursor.
+     */
+    @Transactional(readOnly = true)
+    public void exportar(FranquiciaExpand expand, OutputStream salida) {
+        log.info("Exportando franquicias en streaming (expand {})", expand);
+        try (JsonGenerator generador = objectMapper.createGenerator(salida)) {
+            Escritor escritor = new Escritor(generador, expand);
+            generador.writeStartArray();
+            String sql = sql(expand);
+            long ultimoId = 0;
+            List<Long> lote;
+            do {
+                lote = jdbcTemplate.queryForList(SQL_LOTE, Long.class, ultimoId, franquiciasPorLote);
+                if (!lote.isEmpty()) {
+                    ultimoId = lote.get(lote.size() - 1);
+                    jdbcTemplate.query(sql, escritor::fila, lote.get(0), ultimoId);
+                }
+            } while (lote.size() == franquiciasPorLote);
+            escritor.cerrarFranquicia();
+            generador.writeEndArray();
+        }
+    }
+
+    private static String sql(FranquiciaExpand expand) {
+        String rango = " WHERE f.id BETWEEN ? AND ?";
+        return switch (expand) {
+            case NONE -> SQL_FRANQUICIAS + " FROM franquicias f" + rango + " ORDER BY f.id";
+            case SUCURSALES -> SQL_FRANQUICIAS + SQL_SUCURSALES +
+                    " FROM franquicias f LEFT JOIN sucursales s ON s.franquicia_id = f.id" + rango +
+                    " ORDER BY f.id, s.id";
+            case FULL -> SQL_FRANQUICIAS + SQL_SUCURSALES + SQL_PRODUCTOS +
+                    " FROM franquicias f LEFT JOIN sucursales s ON s.franquicia_id = f.id " +
+                    "LEFT JOIN productos p ON p.sucursal_id = s.id" + rango + " ORDER BY f.id, s.id, p.id";
+        };
+    }
+
+    /**
+     * Recorre las filas ordenadas por franquicia, sucursal y producto, y abre o cierra los
+     * objetos JSON cuando cambia el id de cada nivel. Las propiedades se escriben en el mismo
+     * orden en que Jackson serializa los DTOs.
+     */
+    private static final class Escritor {
+
+        private final JsonGenerator generador;
+        private final FranquiciaExpand expand;
+        private long franquiciaActual;
+        private long sucursalActual;
+        private String franquiciaNombre;
+        private String sucursalNombre;
+
+        // updatedAt y version van después de la lista de hijos: se guardan hasta cerrar el objeto
+        private LocalDateTime franquiciaActualizada;
+        private Long franquiciaVersion;
+        private LocalDateTime sucursalActualizada;
+        private Long sucursalVersion;
+
+        Escritor(JsonGenerator generador, FranquiciaExpand expand) {
+            this.generador = generador;
+            this.expand = expand;
+        }
+
+        void fila(ResultSet rs) throws SQLException {
+            long franquiciaId = rs.getLong("f_id");
+            if (franquiciaId != franquiciaActual) {
+                cerrarFranquicia();
+                abrirFranquicia(rs, franquiciaId);
+            }
+            if (expand == FranquiciaExpand.NONE) {
+                return;
+            }
+            long sucursalId = rs.getLong("s_id");
+            if (rs.wasNull()) {
+                return;
+            }
+            if (sucursalId != sucursalActual) {
+                cerrarSucursal();
+                abrirSucursal(rs, sucursalId);
+            }
+            if (expand == FranquiciaExpand.FULL) {
+                long productoId = rs.getLong("p_id");
+                if (!rs.wasNull()) {
+                    escribirProducto(rs, productoId);
+                }
+            }
+        }
+
+        private void abrirFranquicia(ResultSet rs, long franquiciaId) throws SQLException {
+            franquiciaActual = franquiciaId;
+            franquiciaNombre = rs.getString("f_nombre");
+            franquiciaActualizada = rs.getObject("f_updated_at", LocalDateTime.class);
+            franquiciaVersion = rs.getObject("f_version", Long.class);
+            generador.writeStartObject();
+            generador.writePOJOProperty("createdAt", rs.getObject("f_created_at", LocalDateTime.class));
+            generador.writeNumberProperty("id", franquiciaId);
+            generador.writeStringProperty("nombre", franquiciaNombre);
+            if (expand != FranquiciaExpand.NONE) {
+                generador.writeName("sucursales");
+                generador.writeStartArray();
+            }
+        }
+
+        void cerrarFranquicia() {
+            if (franquiciaActual == 0) {
+                return;
+            }
+            if (expand != FranquiciaExpand.NONE) {
+                cerrarSucursal();
+                generador.writeEndArray();
+            }
+            generador.writePOJOProperty("updatedAt", franquiciaActualizada);
+            generador.writePOJOProperty("version", franquiciaVersion);
+            generador.writeEndObject();
+            franquiciaActual = 0;
+        }
+
+        private void abrirSucursal(ResultSet rs, long sucursalId) throws SQLException {
+            sucursalActual = sucursalId;
+            sucursalNombre = rs.getString("s_nombre");
+            sucursalActualizada = rs.getObject("s_updated_at", LocalDateTime.class);
+            sucursalVersion = rs.getObject("s_version", Long.class);
+            generador.writeStartObject();
+            generador.writePOJOProperty("createdAt", rs.getObject("s_created_at", LocalDateTime.class));
+            generador.writeNumberProperty("franquiciaId", franquiciaActual);
+            generador.writeStringProperty("franquiciaNombre", franquiciaNombre);
+            generador.writeNumberProperty("id", sucursalId);
+            generador.writeStringProperty("nombre", sucursalNombre);
+            if (expand == FranquiciaExpand.FULL) {
+                generador.writeName("productos");
+                generador.writeStartArray();
+            }
+        }
+
+        private void cerrarSucursal() {
+            if (sucursalActual == 0) {
+                return;
+            }
+            if (expand == FranquiciaExpand.FULL) {
+                generador.writeEndArray();
+            }
+            generador.writePOJOProperty("updatedAt", sucursalActualizada);
+            generador.writePOJOProperty("version", sucursalVersion);
+            generador.writeEndObject();
+            sucursalActual = 0;
+        }
+
+        private void escribirProducto(ResultSet rs, long productoId) throws SQLException {
+            generador.writeStartObject();
+            generador.writeNumberProperty("id", productoId);
+            generador.writeStringProperty("nombre", rs.getString("p_nombre"));
+            generador.writeNumberProperty("stock", rs.getInt("p_stock"));
+            generador.writeNumberProperty("sucursalId", sucursalActual);
+            generador.writeStringProperty("sucursalNombre", sucursalNombre);
+            generador.writePOJOProperty("createdAt", rs.getObject("p_created_at", LocalDateTime.class));
+            generador.writePOJOProperty("updatedAt", rs.getObject("p_updated_at", LocalDateTime.class));
+            generador.writePOJOProperty("version", rs.getObject("p_version", Long.class));
+            generador.writeEndObject();
+        }
+    }
+}
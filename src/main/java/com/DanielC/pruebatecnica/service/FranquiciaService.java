@@ -1,8 +1,13 @@
 package com.DanielC.pruebatecnica.service;
 
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.FranquiciaExpand;
 import com.DanielC.pruebatecnica.dto.FranquiciaRequestDTO;
 import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.InventarioResumenDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
 import com.DanielC.pruebatecnica.dto.ProductoMaxStockDTO;
+import com.DanielC.pruebatecnica.dto.RefrescoInventario;
 
 import java.util.List;
 
@@ -11,10 +16,14 @@ import java.util.List;
  */
 public interface FranquiciaService {
     FranquiciaResponseDTO crearFranquicia(FranquiciaRequestDTO requestDTO);
-    FranquiciaResponseDTO obtenerFranquiciaPorId(Long id);
-    List<FranquiciaResponseDTO> obtenerTodasLasFranquicias();
-    FranquiciaResponseDTO actualizarNombreFranquicia(Long id, FranquiciaRequestDTO requestDTO);
+    FranquiciaResponseDTO obtenerFranquiciaPorId(Long id, FranquiciaExpand expand);
+    EstadoAgregadoDTO obtenerEstadoFranquicia(Long id, FranquiciaExpand expand);
+    EstadoAgregadoDTO obtenerEstadoFranquicias(FranquiciaExpand expand);
+    PaginaResponseDTO<FranquiciaResponseDTO> obtenerFranquiciasPaginadas(Long after, int limit);
+    FranquiciaResponseDTO actualizarNombreFranquicia(Long id, FranquiciaRequestDTO requestDTO, Long versionEsperada);
     void eliminarFranquicia(Long id);
-    List<ProductoMaxStockDTO> obtenerProductosConMayorStockPorSucursal(Long franquiciaId);
+    List<ProductoMaxStockDTO> obtenerProductosConMayorStockPorSucursal(Long franquiciaId, int k);
+    List<ProductoMaxStockDTO> obtenerProductosConMayorStock(Long franquiciaId, int k);
+    InventarioResumenDTO obtenerResumenInventario(Long franquiciaId, int umbral, RefrescoInventario refresco);
 }
 
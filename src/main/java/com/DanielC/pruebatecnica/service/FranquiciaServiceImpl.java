@@ -1,15 +1,23 @@
 package com.DanielC.pruebatecnica.service;
 
+import com.DanielC.pruebatecnica.config.CacheConfig;
 import com.DanielC.pruebatecnica.dto.*;
 import com.DanielC.pruebatecnica.exception.FranquiciaNotFoundException;
+import com.DanielC.pruebatecnica.exception.VersionMismatchException;
 import com.DanielC.pruebatecnica.model.Franquicia;
 import com.DanielC.pruebatecnica.model.Producto;
 import com.DanielC.pruebatecnica.model.Sucursal;
 import com.DanielC.pruebatecnica.repository.FranquiciaRepository;
 import com.DanielC.pruebatecnica.repository.ProductoRepository;
+import com.DanielC.pruebatecnica.repository.SucursalRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
@@ -21,6 +29,7 @@ import java.util.stream.Collectors;
  * Implementación del servicio de Franquicia
  */
 @Service
+@Timed(value = "servicio.invocaciones", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
@@ -28,6 +37,14 @@ public class FranquiciaServiceImpl implements FranquiciaService {
 
     private final FranquiciaRepository franquiciaRepository;
     private final ProductoRepository productoRepository;
+    private final SucursalRepository sucursalRepository;
+    private final CatalogoCache catalogoCache;
+    private final IndiceMayorStock indiceMayorStock;
+    private final EnsambladorCatalogo ensambladorCatalogo;
+    private final InventarioFranquicias inventarioFranquicias;
+
+    @Value("${app.stock.distinct-on.enabled:false}")
+    private boolean distinctOn;
 
     @Override
     public FranquiciaResponseDTO crearFranquicia(FranquiciaRequestDTO requestDTO) {
@@ -39,6 +56,7 @@ public class FranquiciaServiceImpl implements FranquiciaService {
                 .build();
         
         Franquicia saved = franquiciaRepository.save(franquicia);
+        indiceMayorStock.registrarFranquicia(saved.getId());
         log.info("Franquicia creada con ID: {}", saved.getId());
         
         return mapToResponseDTO(saved);
@@ -46,76 +64,168 @@ public class FranquiciaServiceImpl implements FranquiciaService {
 
     @Override
     @Transactional(readOnly = true)
-    public FranquiciaResponseDTO obtenerFranquiciaPorId(Long id) {
-        log.info("Obteniendo franquicia con ID: {}", id);
-        Franquicia franquicia = franquiciaRepository.findById(id)
+    @Cacheable(CacheConfig.FRANQUICIAS)
+    public FranquiciaResponseDTO obtenerFranquiciaPorId(Long id, FranquiciaExpand expand) {
+        log.debug("Obteniendo franquicia con ID: {} (expand {})", id, expand);
+        if (expand != FranquiciaExpand.FULL) {
+            FranquiciaResponseDTO franquicia = franquiciaRepository.findResumenById(id)
+                    .orElseThrow(() -> new FranquiciaNotFoundException(id));
+            if (expand == FranquiciaExpand.SUCURSALES) {
+                franquicia.setSucursales(sucursalRepository.findResumenByFranquiciaId(id));
+            }
+            return franquicia;
+        }
+        // Detalle completo: dos consultas planas (sucursales y productos) ensambladas en memoria
+        FranquiciaResponseDTO franquicia = franquiciaRepository.findResumenById(id)
                 .orElseThrow(() -> new FranquiciaNotFoundException(id));
-        return mapToResponseDTO(franquicia);
+        List<SucursalResponseDTO> sucursales = sucursalRepository.findResumenByFranquiciaId(id);
+        ensambladorCatalogo.agrupar(sucursales, SucursalResponseDTO::getId,
+                productoRepository.findResumenByFranquiciaId(id), ProductoResponseDTO::getSucursalId,
+                SucursalResponseDTO::setProductos);
+        franquicia.setSucursales(sucursales);
+        return franquicia;
+    }
+
+    /**
+     * Estado de la franquicia y de lo que incluye según expand, sin cargar entidades.
+     * Base del ETag y Last-Modified de GET /franquicias/{id}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public EstadoAgregadoDTO obtenerEstadoFranquicia(Long id, FranquiciaExpand expand) {
+        EstadoAgregadoDTO estado = franquiciaRepository.findEstadoById(id);
+        if (estado.isVacio()) {
+            throw new FranquiciaNotFoundException(id);
+        }
+        if (expand != FranquiciaExpand.NONE) {
+            estado = estado.combinar(sucursalRepository.findEstadoByFranquiciaId(id));
+        }
+        if (expand == FranquiciaExpand.FULL) {
+            estado = estado.combinar(productoRepository.findEstadoByFranquiciaId(id));
+        }
+        return estado;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<FranquiciaResponseDTO> obtenerTodasLasFranquicias() {
-        log.info("Obteniendo todas las franquicias");
-        return franquiciaRepository.findAll().stream()
+    public EstadoAgregadoDTO obtenerEstadoFranquicias(FranquiciaExpand expand) {
+        EstadoAgregadoDTO estado = franquiciaRepository.findEstado();
+        if (expand != FranquiciaExpand.NONE) {
+            estado = estado.combinar(sucursalRepository.findEstado());
+        }
+        if (expand == FranquiciaExpand.FULL) {
+            estado = estado.combinar(productoRepository.findEstado());
+        }
+        return estado;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaResponseDTO<FranquiciaResponseDTO> obtenerFranquiciasPaginadas(Long after, int limit) {
+        int tamano = Math.min(Math.max(limit, 1), PaginaResponseDTO.LIMITE_MAXIMO);
+        log.debug("Obteniendo página de franquicias después de ID: {} (limit {})", after, tamano);
+        List<Franquicia> franquicias = franquiciaRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(tamano + 1));
+
+        List<FranquiciaResponseDTO> items = franquicias.stream()
+                .limit(tamano)
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
+
+        return PaginaResponseDTO.<FranquiciaResponseDTO>builder()
+                .items(items)
+                .limit(tamano)
+                .nextCursor(franquicias.size() > tamano ? items.get(tamano - 1).getId() : null)
+                .build();
     }
 
     @Override
-    public FranquiciaResponseDTO actualizarNombreFranquicia(Long id, FranquiciaRequestDTO requestDTO) {
+    @ReintentoOptimista
+    public FranquiciaResponseDTO actualizarNombreFranquicia(Long id, FranquiciaRequestDTO requestDTO,
+                                                            Long versionEsperada) {
         log.info("Actualizando nombre de franquicia ID: {}", id);
         Franquicia franquicia = franquiciaRepository.findById(id)
                 .orElseThrow(() -> new FranquiciaNotFoundException(id));
+        if (versionEsperada != null && !versionEsperada.equals(franquicia.getVersion())) {
+            throw new VersionMismatchException("Franquicia", id, versionEsperada, franquicia.getVersion());
+        }
         
         franquicia.setNombre(requestDTO.getNombre());
-        Franquicia updated = franquiciaRepository.save(franquicia);
+        Franquicia updated = franquiciaRepository.saveAndFlush(franquicia);
+        catalogoCache.invalidarFranquicia(id);
         log.info("Franquicia actualizada exitosamente");
         
         return mapToResponseDTO(updated);
     }
 
     @Override
+    @ReintentoOptimista
     public void eliminarFranquicia(Long id) {
         log.info("Eliminando franquicia con ID: {}", id);
         if (!franquiciaRepository.existsById(id)) {
             throw new FranquiciaNotFoundException(id);
         }
+        catalogoCache.invalidarFranquiciaEliminada(id);
+        indiceMayorStock.eliminarFranquicia(id);
         franquiciaRepository.deleteById(id);
         log.info("Franquicia eliminada exitosamente");
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<ProductoMaxStockDTO> obtenerProductosConMayorStockPorSucursal(Long franquiciaId) {
-        log.info("Obteniendo productos con mayor stock para franquicia ID: {}", franquiciaId);
-        
-        Franquicia franquicia = franquiciaRepository.findById(franquiciaId)
-                .orElseThrow(() -> new FranquiciaNotFoundException(franquiciaId));
-        
-        List<ProductoMaxStockDTO> resultado = new ArrayList<>();
-        
-        for (Sucursal sucursal : franquicia.getSucursales()) {
-            List<Producto> productos = productoRepository.findTopBySucursalIdOrderByStockDesc(sucursal.getId());
-            if (!productos.isEmpty()) {
-                Producto productoMaxStock = productos.get(0);
-                resultado.add(ProductoMaxStockDTO.builder()
-                        .productoId(productoMaxStock.getId())
-                        .productoNombre(productoMaxStock.getNombre())
-                        .stock(productoMaxStock.getStock())
-                        .sucursalId(sucursal.getId())
-                        .sucursalNombre(sucursal.getNombre())
-                        .build());
-            }
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<ProductoMaxStockDTO> obtenerProductosConMayorStockPorSucursal(Long franquiciaId, int k) {
+        int tamano = Math.min(Math.max(k, 1), ProductoMaxStockDTO.K_MAXIMO);
+        log.debug("Obteniendo {} productos con mayor stock por sucursal para franquicia ID: {}", tamano, franquiciaId);
+
+        // Con el índice cargado se responde desde memoria, sin abrir transacción ni consultar la base de datos
+        if (indiceMayorStock.isListo()) {
+            return indiceMayorStock.mayorStockPorSucursal(franquiciaId, tamano)
+                    .orElseThrow(() -> new FranquiciaNotFoundException(franquiciaId));
+        }
+
+        if (!franquiciaRepository.existsById(franquiciaId)) {
+            throw new FranquiciaNotFoundException(franquiciaId);
         }
+
+        // Para k = 1 DISTINCT ON evita numerar todas las filas con ROW_NUMBER
+        List<ProductoMaxStockDTO> resultado = distinctOn && tamano == 1
+                ? productoRepository.findMaxStockPorSucursalByFranquiciaIdDistinctOn(franquiciaId)
+                : productoRepository.findTopStockPorSucursalByFranquiciaId(franquiciaId, tamano);
         
-        log.info("Se encontraron {} productos con mayor stock", resultado.size());
+        log.debug("Se encontraron {} productos con mayor stock", resultado.size());
         return resultado;
     }
 
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<ProductoMaxStockDTO> obtenerProductosConMayorStock(Long franquiciaId, int k) {
+        int tamano = Math.min(Math.max(k, 1), ProductoMaxStockDTO.K_MAXIMO);
+        log.debug("Obteniendo {} productos con mayor stock de la franquicia ID: {}", tamano, franquiciaId);
+
+        if (indiceMayorStock.isListo()) {
+            return indiceMayorStock.mayorStockDeFranquicia(franquiciaId, tamano)
+                    .orElseThrow(() -> new FranquiciaNotFoundException(franquiciaId));
+        }
+
+        if (!franquiciaRepository.existsById(franquiciaId)) {
+            throw new FranquiciaNotFoundException(franquiciaId);
+        }
+        return productoRepository.findTopStockByFranquiciaId(franquiciaId, Limit.of(tamano));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public InventarioResumenDTO obtenerResumenInventario(Long franquiciaId, int umbral, RefrescoInventario refresco) {
+        log.debug("Obteniendo resumen de inventario de franquicia ID: {} (umbral {}, refresco {})",
+                franquiciaId, umbral, refresco);
+        FranquiciaResponseDTO franquicia = franquiciaRepository.findResumenById(franquiciaId)
+                .orElseThrow(() -> new FranquiciaNotFoundException(franquiciaId));
+        return inventarioFranquicias.resumen(franquiciaId, franquicia.getNombre(), Math.max(umbral, 0), refresco);
+    }
+
     private FranquiciaResponseDTO mapToResponseDTO(Franquicia franquicia) {
         List<SucursalResponseDTO> sucursalesDTO = franquicia.getSucursales().stream()
-                .map(this::mapSucursalToResponseDTO)
+                .map(sucursal -> mapSucursalToResponseDTO(sucursal, franquicia))
                 .collect(Collectors.toList());
         
         return FranquiciaResponseDTO.builder()
@@ -124,34 +234,37 @@ public class FranquiciaServiceImpl implements FranquiciaService {
                 .sucursales(sucursalesDTO)
                 .createdAt(franquicia.getCreatedAt())
                 .updatedAt(franquicia.getUpdatedAt())
+                .version(franquicia.getVersion())
                 .build();
     }
 
-    private SucursalResponseDTO mapSucursalToResponseDTO(Sucursal sucursal) {
+    private SucursalResponseDTO mapSucursalToResponseDTO(Sucursal sucursal, Franquicia franquicia) {
         List<ProductoResponseDTO> productosDTO = sucursal.getProductos().stream()
-                .map(this::mapProductoToResponseDTO)
+                .map(producto -> mapProductoToResponseDTO(producto, sucursal))
                 .collect(Collectors.toList());
         
         return SucursalResponseDTO.builder()
                 .id(sucursal.getId())
                 .nombre(sucursal.getNombre())
-                .franquiciaId(sucursal.getFranquicia().getId())
-                .franquiciaNombre(sucursal.getFranquicia().getNombre())
+                .franquiciaId(franquicia.getId())
+                .franquiciaNombre(franquicia.getNombre())
                 .productos(productosDTO)
                 .createdAt(sucursal.getCreatedAt())
                 .updatedAt(sucursal.getUpdatedAt())
+                .version(sucursal.getVersion())
                 .build();
     }
 
-    private ProductoResponseDTO mapProductoToResponseDTO(Producto producto) {
+    private ProductoResponseDTO mapProductoToResponseDTO(Producto producto, Sucursal sucursal) {
         return ProductoResponseDTO.builder()
                 .id(producto.getId())
                 .nombre(producto.getNombre())
                 .stock(producto.getStock())
-                .sucursalId(producto.getSucursal().getId())
-                .sucursalNombre(producto.getSucursal().getNombre())
+                .sucursalId(sucursal.getId())
+                .sucursalNombre(sucursal.getNombre())
                 .createdAt(producto.getCreatedAt())
                 .updatedAt(producto.getUpdatedAt())
+                .version(producto.getVersion())
                 .build();
     }
 }
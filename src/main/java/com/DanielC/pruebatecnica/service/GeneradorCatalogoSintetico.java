@@ -0,0 +1,157 @@
+package com.DanielC.pruebatecnica.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Genera al arrancar un catálogo sintético de gran tamaño (perfil catalogo-sintetico).
+ * <p>
+ * Crea F franquicias × S sucursales × P productos con ids consecutivos e inserciones JDBC por
+ * lotes. El stock sigue una distribución de Pareto y la semilla es fija, de modo que dos
+ * ejecuciones con la misma configuración producen exactamente los mismos datos.
+ */
+@Component
+@Profile("catalogo-sintetico")
+@Slf4j
+public class GeneradorCatalogoSintetico implements ApplicationRunner {
+
+    private static final String SQL_FRANQUICIA = "INSERT INTO franquicias (id, nombre, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, 0)";
+    private static final String SQL_SUCURSAL = "INSERT INTO sucursales (id, nombre, franquicia_id, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String SQL_PRODUCTO = "INSERT INTO productos (id, nombre, stock, sucursal_id, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String[] NOMBRES_PRODUCTO = {
+            "Hamburguesa", "Café", "Sándwich", "Ensalada", "Refresco", "Postre", "Pizza", "Té", "Galleta", "Jugo"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int franquicias;
+    private final int sucursalesPorFranquicia;
+    private final int productosPorSucursal;
+    private final long semilla;
+    private final int lote;
+    private final double stockAlfa;
+    private final int stockMaximo;
+
+    public GeneradorCatalogoSintetico(JdbcTemplate jdbcTemplate,
+                                      @Value("${app.generador.franquicias:100}") int franquicias,
+                                      @Value("${app.generador.sucursales-por-franquicia:100}") int sucursalesPorFranquicia,
+                                      @Value("${app.generador.productos-por-sucursal:100}") int productosPorSucursal,
+                                      @Value("${app.generador.semilla:42}") long semilla,
+                                      @Value("${app.generador.lote:5000}") int lote,
+                                      @Value("${app.generador.stock-alfa:1.2}") double stockAlfa,
+                                      @Value("${app.generador.stock-maximo:100000}") int stockMaximo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.franquicias = franquicias;
+        this.sucursalesPorFranquicia = sucursalesPorFranquicia;
+        this.productosPorSucursal = productosPorSucursal;
+        this.semilla = semilla;
+        this.lote = lote;
+        this.stockAlfa = stockAlfa;
+        this.stockMaximo = stockMaximo;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer existentes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM franquicias", Integer.class);
+        if (existentes != null && existentes > 0) {
+            log.warn("La base de datos ya tiene {} franquicias; no se genera el catálogo sintético", existentes);
+            return;
+        }
+        long totalSucursales = (long) franquicias * sucursalesPorFranquicia;
+        long totalProductos = totalSucursales * productosPorSucursal;
+        log.info("Generando catálogo sintético: {} franquicias, {} sucursales, {} productos (semilla {})",
+                franquicias, totalSucursales, totalProductos, semilla);
+
+        long inicio = System.nanoTime();
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        SplittableRandom random = new SplittableRandom(semilla);
+
+        Lote franquiciasLote = new Lote(SQL_FRANQUICIA, Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP);
+        for (long f = 1; f <= franquicias; f++) {
+            franquiciasLote.agregar(f, String.format("Franquicia %06d", f), ahora, ahora);
+        }
+        franquiciasLote.escribir();
+
+        Lote sucursalesLote = new Lote(SQL_SUCURSAL,
+                Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP);
+        Lote productosLote = new Lote(SQL_PRODUCTO,
+                Types.BIGINT, Types.VARCHAR, Types.INTEGER, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP);
+        long sucursalId = 0;
+        long productoId = 0;
+        for (long f = 1; f <= franquicias; f++) {
+            // Las sucursales de la franquicia se escriben antes que sus productos por la clave foránea
+            long primeraSucursal = sucursalId + 1;
+            for (int s = 0; s < sucursalesPorFranquicia; s++) {
+                sucursalId++;
+                sucursalesLote.agregar(sucursalId, String.format("Sucursal %06d-%04d", f, s), f, ahora, ahora);
+            }
+            sucursalesLote.escribir();
+            for (long id = primeraSucursal; id <= sucursalId; id++) {
+                for (int p = 0; p < productosPorSucursal; p++) {
+                    productoId++;
+                    String nombre = NOMBRES_PRODUCTO[random.nextInt(NOMBRES_PRODUCTO.length)] + " " + productoId;
+                    productosLote.agregar(productoId, nombre, stock(random), id, ahora, ahora);
+                }
+            }
+        }
+        productosLote.escribir();
+
+        // Las secuencias (allocationSize 50) y la identidad deben continuar después de los ids generados
+        jdbcTemplate.execute("ALTER TABLE franquicias ALTER COLUMN id RESTART WITH " + (franquicias + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE sucursales_seq RESTART WITH " + (sucursalId + 100));
+        jdbcTemplate.execute("ALTER SEQUENCE productos_seq RESTART WITH " + (productoId + 100));
+
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        log.info("Catálogo sintético generado en {} ms ({} filas/s)",
+                ms, (franquicias + totalSucursales + totalProductos) * 1000 / Math.max(ms, 1));
+    }
+
+    // Pareto con mínimo 0: la mayoría de productos tiene poco stock y unos pocos concentran mucho
+    private int stock(SplittableRandom random) {
+        double valor = 10 * (Math.pow(1 - random.nextDouble(), -1.0 / stockAlfa) - 1);
+        return (int) Math.min(stockMaximo, Math.floor(valor));
+    }
+
+    /**
+     * Acumula filas y las escribe con un batch JDBC cada vez que se llena el lote
+     */
+    private final class Lote {
+        private final String sql;
+        private final int[] tipos;
+        private final List<Object[]> filas = new ArrayList<>(lote);
+
+        private Lote(String sql, int... tipos) {
+            this.sql = sql;
+            this.tipos = tipos;
+        }
+
+        private void agregar(Object... fila) {
+            filas.add(fila);
+            if (filas.size() == lote) {
+                escribir();
+            }
+        }
+
+        private void escribir() {
+            if (!filas.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, filas, tipos);
+                filas.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.DanielC.pruebatecnica.service;
+
+import com.DanielC.pruebatecnica.exception.ImportacionInvalidaException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Valida todos los elementos de una importación masiva antes de persistir ninguno
+ */
+@Component
+@RequiredArgsConstructor
+public class ImportacionValidator {
+
+    private final Validator validator;
+
+    @Value("${app.bulk.max-items:10000}")
+    private int maxItems;
+
+    public <T> void validar(List<T> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ImportacionInvalidaException("La importación no contiene elementos", Map.of());
+        }
+        if (items.size() > maxItems) {
+            throw new ImportacionInvalidaException(
+                    "La importación supera el máximo de " + maxItems + " elementos", Map.of());
+        }
+
+        Map<String, String> errores = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == null) {
+                errores.put("[" + i + "]", "El elemento no puede ser nulo");
+                continue;
+            }
+            for (ConstraintViolation<T> violacion : validator.validate(items.get(i))) {
+                errores.put("[" + i + "]." + violacion.getPropertyPath(), violacion.getMessage());
+            }
+        }
+        if (!errores.isEmpty()) {
+            throw new ImportacionInvalidaException("Error de validación", errores);
+        }
+    }
+}
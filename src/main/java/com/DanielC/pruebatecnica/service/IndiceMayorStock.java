@@ -0,0 +1,468 @@
+package com.DanielC.pruebatecnica.service;
+
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.ProductoMaxStockDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.dto.VerificacionIndiceDTO;
+import com.DanielC.pruebatecnica.model.Producto;
+import com.DanielC.pruebatecnica.model.Sucursal;
+import com.DanielC.pruebatecnica.repository.FranquiciaRepository;
+import com.DanielC.pruebatecnica.repository.ProductoRepository;
+import com.DanielC.pruebatecnica.repository.SucursalRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Índice en memoria del producto con mayor stock de cada sucursal.
+ * <p>
+ * Cada sucursal guarda sus productos en un arreglo ordenado de claves long que combinan stock e id,
+ * de modo que el máximo es el último elemento y el desempate por menor id coincide con la consulta
+ * SQL. Se carga al arrancar y se mantiene con los cambios confirmados de los servicios; los cambios
+ * se aplican tras el commit y se descartan si llegan con una versión anterior a la indexada.
+ * <p>
+ * La carga construye un índice nuevo sin bloquear: el anterior sigue respondiendo y recibiendo
+ * cambios, que además se guardan para reaplicarlos al nuevo antes de sustituirlo. Las claves
+ * reservan 32 bits al id: con un producto de id mayor el índice deja de usarse y los informes se
+ * calculan con SQL.
+ */
+@Component
+@Slf4j
+public class IndiceMayorStock {
+
+    private static final long MASCARA_ID = 0xFFFFFFFFL;
+
+    private final ProductoRepository productoRepository;
+    private final SucursalRepository sucursalRepository;
+    private final FranquiciaRepository franquiciaRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate lectura;
+    private final boolean habilitado;
+    private final boolean distinctOn;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock recarga = new ReentrantLock();
+    /** Índice que se consulta; se sustituye entero al terminar cada carga. Protegido por lock */
+    private Indice indice = new Indice();
+    /** Cambios confirmados durante una carga, para reaplicarlos al índice nuevo. Protegido por lock */
+    private List<Consumer<Indice>> cambiosDuranteCarga;
+    private volatile boolean listo;
+
+    public IndiceMayorStock(ProductoRepository productoRepository,
+                            SucursalRepository sucursalRepository,
+                            FranquiciaRepository franquiciaRepository,
+                            EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.stock.indice.enabled:true}") boolean habilitado,
+                            @Value("${app.stock.distinct-on.enabled:false}") boolean distinctOn) {
+        this.productoRepository = productoRepository;
+        this.sucursalRepository = sucursalRepository;
+        this.franquiciaRepository = franquiciaRepository;
+        this.entityManager = entityManager;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.habilitado = habilitado;
+        this.distinctOn = distinctOn;
+    }
+
+    public boolean isListo() {
+        return listo;
+    }
+
+    /**
+     * Carga el índice completo en uno nuevo, sin bloquear lecturas ni cambios confirmados. Los
+     * cambios que llegan durante la carga se aplican al índice vigente y se reaplican al nuevo
+     * antes de sustituirlo, por lo que ninguno se pierde.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void calentar() {
+        if (!habilitado) {
+            log.info("Índice de mayor stock deshabilitado");
+            return;
+        }
+        recarga.lock();
+        try {
+            long inicio = System.nanoTime();
+            // Se empieza a guardar cambios antes de abrir la lectura: lo confirmado antes lo ve la
+            // consulta, y lo confirmado después queda en la lista (reaplicarlo dos veces no cambia nada)
+            conLock(() -> cambiosDuranteCarga = new ArrayList<>());
+            Indice nuevo = new Indice();
+            try {
+                lectura.executeWithoutResult(status -> cargar(nuevo));
+            } catch (RuntimeException e) {
+                conLock(() -> cambiosDuranteCarga = null);
+                throw e;
+            }
+            int[] reaplicados = new int[1];
+            conLock(() -> {
+                cambiosDuranteCarga.forEach(cambio -> cambio.accept(nuevo));
+                reaplicados[0] = cambiosDuranteCarga.size();
+                cambiosDuranteCarga = null;
+                indice = nuevo;
+                listo = !nuevo.fueraDeRango;
+            });
+            if (nuevo.fueraDeRango) {
+                log.error("Índice de mayor stock deshabilitado: hay productos con id mayor que {}", MASCARA_ID);
+                return;
+            }
+            log.info("Índice de mayor stock cargado: {} productos en {} sucursales en {} ms ({} cambios reaplicados)",
+                    nuevo.productos.size(), nuevo.sucursales.size(), (System.nanoTime() - inicio) / 1_000_000,
+                    reaplicados[0]);
+        } finally {
+            recarga.unlock();
+        }
+    }
+
+    private void cargar(Indice nuevo) {
+        franquiciaRepository.findAllResumen().stream()
+                .map(FranquiciaResponseDTO::getId)
+                .forEach(id -> nuevo.franquicias.put(id, new TreeMap<>()));
+        for (SucursalResponseDTO sucursal : sucursalRepository.findAllResumen()) {
+            nuevo.ponerSucursal(sucursal.getId(), sucursal.getNombre(), sucursal.getFranquiciaId());
+        }
+        try (Stream<Producto> productos = productoRepository.streamAllByOrderByIdAsc()) {
+            productos.forEach(producto -> {
+                nuevo.ponerProducto(producto.getId(), new ProductoIndexado(producto.getNombre(),
+                        producto.getStock(), producto.getVersion(), producto.getSucursal().getId()));
+                entityManager.detach(producto);
+            });
+        }
+    }
+
+    /**
+     * Los k productos con mayor stock de cada sucursal de la franquicia, ordenados por id de
+     * sucursal y stock descendente. Vacío si la franquicia no existe.
+     */
+    public Optional<List<ProductoMaxStockDTO>> mayorStockPorSucursal(Long franquiciaId, int k) {
+        lock.readLock().lock();
+        try {
+            TreeMap<Long, SucursalIndexada> sucursalesFranquicia = indice.franquicias.get(franquiciaId);
+            if (sucursalesFranquicia == null) {
+                return Optional.empty();
+            }
+            List<ProductoMaxStockDTO> resultado = new ArrayList<>();
+            for (SucursalIndexada sucursal : sucursalesFranquicia.values()) {
+                for (int i = sucursal.tamano - 1; i >= Math.max(sucursal.tamano - k, 0); i--) {
+                    resultado.add(indice.aDTO(sucursal, sucursal.claves[i]));
+                }
+            }
+            return Optional.of(resultado);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Los k productos con mayor stock de toda la franquicia. Mezcla los arreglos ordenados de las
+     * sucursales con un heap de un cursor por sucursal: O(#sucursales + k·log #sucursales).
+     */
+    public Optional<List<ProductoMaxStockDTO>> mayorStockDeFranquicia(Long franquiciaId, int k) {
+        lock.readLock().lock();
+        try {
+            TreeMap<Long, SucursalIndexada> sucursalesFranquicia = indice.franquicias.get(franquiciaId);
+            if (sucursalesFranquicia == null) {
+                return Optional.empty();
+            }
+            // Cada cursor es {índice de sucursal, posición}; el heap ordena por la clave apuntada, mayor primero
+            SucursalIndexada[] lista = sucursalesFranquicia.values().toArray(new SucursalIndexada[0]);
+            PriorityQueue<int[]> cursores = new PriorityQueue<>(Math.max(lista.length, 1),
+                    (a, b) -> Long.compare(lista[b[0]].claves[b[1]], lista[a[0]].claves[a[1]]));
+            for (int i = 0; i < lista.length; i++) {
+                if (lista[i].tamano > 0) {
+                    cursores.add(new int[]{i, lista[i].tamano - 1});
+                }
+            }
+            List<ProductoMaxStockDTO> resultado = new ArrayList<>(k);
+            while (resultado.size() < k && !cursores.isEmpty()) {
+                int[] cursor = cursores.poll();
+                SucursalIndexada sucursal = lista[cursor[0]];
+                resultado.add(indice.aDTO(sucursal, sucursal.claves[cursor[1]]));
+                if (--cursor[1] >= 0) {
+                    cursores.add(cursor);
+                }
+            }
+            return Optional.of(resultado);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compara el producto con mayor stock de cada sucursal contra la consulta SQL
+     */
+    public VerificacionIndiceDTO verificar() {
+        if (!listo) {
+            return VerificacionIndiceDTO.builder().listo(false).diferencias(List.of()).build();
+        }
+        Map<Long, ProductoMaxStockDTO> baseDeDatos = lectura.execute(status ->
+                (distinctOn ? productoRepository.findMaxStockPorSucursalDistinctOn()
+                        : productoRepository.findMaxStockPorSucursal()).stream()
+                        .collect(Collectors.toMap(ProductoMaxStockDTO::getSucursalId, dto -> dto)));
+
+        Map<Long, ProductoMaxStockDTO> enIndice = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (SucursalIndexada sucursal : indice.sucursales.values()) {
+                ProductoMaxStockDTO mayor = indice.mayorStock(sucursal);
+                if (mayor != null) {
+                    enIndice.put(sucursal.id, mayor);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<String> diferencias = new ArrayList<>();
+        baseDeDatos.keySet().stream().filter(id -> !enIndice.containsKey(id)).sorted()
+                .forEach(id -> diferencias.add("Sucursal " + id + ": falta en el índice"));
+        enIndice.forEach((id, dto) -> {
+            if (!Objects.equals(dto, baseDeDatos.get(id))) {
+                diferencias.add("Sucursal " + id + ": índice=" + dto + ", base de datos=" + baseDeDatos.get(id));
+            }
+        });
+        if (!diferencias.isEmpty()) {
+            log.warn("El índice de mayor stock tiene {} diferencias con la base de datos", diferencias.size());
+        }
+        return VerificacionIndiceDTO.builder()
+                .listo(true)
+                .consistente(diferencias.isEmpty())
+                .sucursalesRevisadas(Math.max(enIndice.size(), baseDeDatos.size()))
+                .diferencias(diferencias)
+                .build();
+    }
+
+    public void registrarFranquicia(Long franquiciaId) {
+        alConfirmar(destino -> destino.franquicias.putIfAbsent(franquiciaId, new TreeMap<>()));
+    }
+
+    public void eliminarFranquicia(Long franquiciaId) {
+        alConfirmar(destino -> destino.quitarFranquicia(franquiciaId));
+    }
+
+    /**
+     * Sucursal creada o renombrada
+     */
+    public void registrarSucursal(Sucursal sucursal) {
+        Long id = sucursal.getId();
+        String nombre = sucursal.getNombre();
+        Long franquiciaId = sucursal.getFranquicia().getId();
+        alConfirmar(destino -> destino.ponerSucursal(id, nombre, franquiciaId));
+    }
+
+    public void eliminarSucursal(Long sucursalId) {
+        alConfirmar(destino -> destino.quitarSucursal(sucursalId));
+    }
+
+    /**
+     * Producto creado o modificado
+     */
+    public void registrarProducto(Producto producto) {
+        Long id = producto.getId();
+        ProductoIndexado indexado = new ProductoIndexado(producto.getNombre(), producto.getStock(),
+                producto.getVersion(), producto.getSucursal().getId());
+        alConfirmar(destino -> destino.ponerProducto(id, indexado));
+    }
+
+    public void eliminarProducto(Long productoId) {
+        alConfirmar(destino -> destino.quitarProducto(productoId));
+    }
+
+    // Los cambios se aplican tras el commit para no indexar datos de transacciones revertidas
+    private void alConfirmar(Consumer<Indice> cambio) {
+        if (!habilitado) {
+            return;
+        }
+        Runnable aplicar = () -> conLock(() -> {
+            cambio.accept(indice);
+            if (cambiosDuranteCarga != null) {
+                cambiosDuranteCarga.add(cambio);
+            }
+            if (listo && indice.fueraDeRango) {
+                listo = false;
+                log.error("Índice de mayor stock deshabilitado: producto con id mayor que {}", MASCARA_ID);
+            }
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar.run();
+                }
+            });
+        } else {
+            aplicar.run();
+        }
+    }
+
+    private void conLock(Runnable accion) {
+        lock.writeLock().lock();
+        try {
+            accion.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Mayor stock primero y, a igual stock, menor id: coincide con el desempate de la consulta SQL.
+    // El id ocupa los 32 bits bajos; ponerProducto descarta los que no caben
+    private static long clave(int stock, long productoId) {
+        return ((long) stock << 32) | (MASCARA_ID - productoId);
+    }
+
+    private static long idDeClave(long clave) {
+        return MASCARA_ID - (clave & MASCARA_ID);
+    }
+
+    private record ProductoIndexado(String nombre, int stock, long version, long sucursalId) {
+    }
+
+    /**
+     * Estructuras de un índice completo; solo se modifican con el lock de escritura o, mientras se
+     * cargan, desde el hilo de la carga antes de publicarse
+     */
+    private static final class Indice {
+        private final Map<Long, ProductoIndexado> productos = new HashMap<>();
+        private final Map<Long, SucursalIndexada> sucursales = new HashMap<>();
+        private final Map<Long, TreeMap<Long, SucursalIndexada>> franquicias = new HashMap<>();
+        /** Algún producto tiene un id que no cabe en la clave: el índice no es fiable */
+        private boolean fueraDeRango;
+
+        private ProductoMaxStockDTO mayorStock(SucursalIndexada sucursal) {
+            return sucursal.tamano == 0 ? null : aDTO(sucursal, sucursal.claves[sucursal.tamano - 1]);
+        }
+
+        private ProductoMaxStockDTO aDTO(SucursalIndexada sucursal, long clave) {
+            long productoId = idDeClave(clave);
+            ProductoIndexado producto = productos.get(productoId);
+            return new ProductoMaxStockDTO(productoId, producto.nombre(), producto.stock(), sucursal.id, sucursal.nombre);
+        }
+
+        private void quitarFranquicia(Long franquiciaId) {
+            TreeMap<Long, SucursalIndexada> sucursalesFranquicia = franquicias.remove(franquiciaId);
+            if (sucursalesFranquicia != null) {
+                new ArrayList<>(sucursalesFranquicia.keySet()).forEach(this::quitarSucursal);
+            }
+        }
+
+        private void ponerSucursal(Long id, String nombre, Long franquiciaId) {
+            SucursalIndexada sucursal = sucursales.get(id);
+            if (sucursal == null) {
+                sucursal = new SucursalIndexada(id, franquiciaId);
+                sucursales.put(id, sucursal);
+                franquicias.computeIfAbsent(franquiciaId, k -> new TreeMap<>()).put(id, sucursal);
+            }
+            sucursal.nombre = nombre;
+        }
+
+        private void quitarSucursal(Long id) {
+            SucursalIndexada sucursal = sucursales.remove(id);
+            if (sucursal == null) {
+                return;
+            }
+            for (int i = 0; i < sucursal.tamano; i++) {
+                productos.remove(idDeClave(sucursal.claves[i]));
+            }
+            TreeMap<Long, SucursalIndexada> sucursalesFranquicia = franquicias.get(sucursal.franquiciaId);
+            if (sucursalesFranquicia != null) {
+                sucursalesFranquicia.remove(id);
+            }
+        }
+
+        private void ponerProducto(Long id, ProductoIndexado nuevo) {
+            if (id < 0 || id > MASCARA_ID) {
+                fueraDeRango = true;
+                return;
+            }
+            ProductoIndexado actual = productos.get(id);
+            if (actual != null) {
+                if (actual.version() > nuevo.version()) {
+                    return;
+                }
+                quitarClave(actual.sucursalId(), clave(actual.stock(), id));
+            }
+            SucursalIndexada sucursal = sucursales.get(nuevo.sucursalId());
+            if (sucursal == null) {
+                productos.remove(id);
+                return;
+            }
+            productos.put(id, nuevo);
+            sucursal.insertar(clave(nuevo.stock(), id));
+        }
+
+        private void quitarProducto(Long id) {
+            ProductoIndexado actual = productos.remove(id);
+            if (actual != null) {
+                quitarClave(actual.sucursalId(), clave(actual.stock(), id));
+            }
+        }
+
+        private void quitarClave(long sucursalId, long clave) {
+            SucursalIndexada sucursal = sucursales.get(sucursalId);
+            if (sucursal != null) {
+                sucursal.quitar(clave);
+            }
+        }
+    }
+
+    /**
+     * Sucursal con las claves de sus productos en un arreglo ordenado ascendente
+     */
+    private static final class SucursalIndexada {
+        private final long id;
+        private final long franquiciaId;
+        private String nombre;
+        private long[] claves = new long[8];
+        private int tamano;
+
+        private SucursalIndexada(long id, long franquiciaId) {
+            this.id = id;
+            this.franquiciaId = franquiciaId;
+        }
+
+        private void insertar(long clave) {
+            int posicion = Arrays.binarySearch(claves, 0, tamano, clave);
+            if (posicion >= 0) {
+                return;
+            }
+            posicion = -posicion - 1;
+            if (tamano == claves.length) {
+                claves = Arrays.copyOf(claves, tamano * 2);
+            }
+            System.arraycopy(claves, posicion, claves, posicion + 1, tamano - posicion);
+            claves[posicion] = clave;
+            tamano++;
+        }
+
+        private void quitar(long clave) {
+            int posicion = Arrays.binarySearch(claves, 0, tamano, clave);
+            if (posicion < 0) {
+                return;
+            }
+            System.arraycopy(claves, posicion + 1, claves, posicion, tamano - posicion - 1);
+            tamano--;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.DanielC.pruebatecnica.service;
+
+import com.DanielC.pruebatecnica.dto.InventarioResumenDTO;
+import com.DanielC.pruebatecnica.dto.InventarioSucursalDTO;
+import com.DanielC.pruebatecnica.dto.RefrescoInventario;
+import com.DanielC.pruebatecnica.repository.ProductoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumen de inventario por franquicia calculado con consultas GROUP BY, con caché opcional.
+ * <p>
+ * La caché guarda las filas por sucursal de cada (franquicia, umbral). Los cambios confirmados no
+ * la invalidan entera: marcan como pendientes las sucursales afectadas, y en la siguiente lectura
+ * incremental solo se vuelven a agregar esas sucursales. Las altas y bajas de sucursales y los
+ * cambios de franquicia descartan la entrada de la franquicia.
+ */
+@Component
+@Slf4j
+public class InventarioFranquicias {
+
+    /** Umbrales distintos cacheados por franquicia; el resto se calcula sin caché */
+    private static final int MAX_UMBRALES = 8;
+
+    private final ProductoRepository productoRepository;
+    private final Cache<Long, Map<Integer, Instantanea>> cache;
+
+    public InventarioFranquicias(ProductoRepository productoRepository,
+                                 @Value("${app.inventario.cache.enabled:true}") boolean cacheHabilitada,
+                                 @Value("${app.inventario.cache.ttl-seconds:600}") long ttlSegundos,
+                                 @Value("${app.inventario.cache.max-size:1000}") long maxEntradas) {
+        this.productoRepository = productoRepository;
+        this.cache = cacheHabilitada
+                ? Caffeine.newBuilder()
+                        .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                        .maximumSize(maxEntradas)
+                        .build()
+                : null;
+    }
+
+    public InventarioResumenDTO resumen(Long franquiciaId, String franquiciaNombre, int umbral,
+                                        RefrescoInventario refresco) {
+        Instantanea instantanea = cache == null ? null : instantanea(franquiciaId, umbral);
+        if (instantanea == null) {
+            List<InventarioSucursalDTO> sucursales = productoRepository.findInventarioPorSucursal(franquiciaId, umbral);
+            return resumir(franquiciaId, franquiciaNombre, umbral, sucursales, sucursales.size());
+        }
+        synchronized (instantanea) {
+            int recalculadas = 0;
+            // Con más de la mitad de las sucursales pendientes sale más barato agregar todas
+            if (!instantanea.cargada || refresco == RefrescoInventario.COMPLETO
+                    || instantanea.pendientes.size() > instantanea.sucursales.size() / 2) {
+                instantanea.pendientes.clear();
+                instantanea.sucursales.clear();
+                productoRepository.findInventarioPorSucursal(franquiciaId, umbral)
+                        .forEach(fila -> instantanea.sucursales.put(fila.getSucursalId(), fila));
+                instantanea.cargada = true;
+                recalculadas = instantanea.sucursales.size();
+            } else if (!instantanea.pendientes.isEmpty()) {
+                // Se retiran antes de consultar: una marca que llegue durante la consulta queda para la siguiente
+                List<Long> ids = new ArrayList<>(instantanea.pendientes);
+                instantanea.pendientes.removeAll(ids);
+                ids.forEach(instantanea.sucursales::remove);
+                productoRepository.findInventarioPorSucursalIn(franquiciaId, ids, umbral)
+                        .forEach(fila -> instantanea.sucursales.put(fila.getSucursalId(), fila));
+                recalculadas = ids.size();
+            }
+            log.debug("Inventario de franquicia {} (umbral {}): {} sucursales recalculadas",
+                    franquiciaId, umbral, recalculadas);
+            return resumir(franquiciaId, franquiciaNombre, umbral,
+                    new ArrayList<>(instantanea.sucursales.values()), recalculadas);
+        }
+    }
+
+    /**
+     * Cambió el stock o los productos de estas sucursales de la franquicia
+     */
+    public void sucursalesModificadas(Long franquiciaId, Collection<Long> sucursalIds) {
+        alConfirmar(() -> {
+            Map<Integer, Instantanea> porUmbral = cache.getIfPresent(franquiciaId);
+            if (porUmbral != null) {
+                porUmbral.values().forEach(instantanea -> instantanea.pendientes.addAll(sucursalIds));
+            }
+        });
+    }
+
+    /**
+     * Cambiaron las sucursales de la franquicia o la franquicia misma
+     */
+    public void franquiciaModificada(Long franquiciaId) {
+        alConfirmar(() -> cache.invalidate(franquiciaId));
+    }
+
+    private Instantanea instantanea(Long franquiciaId, int umbral) {
+        Map<Integer, Instantanea> porUmbral = cache.get(franquiciaId, id -> new ConcurrentHashMap<>());
+        Instantanea instantanea = porUmbral.get(umbral);
+        if (instantanea == null && porUmbral.size() < MAX_UMBRALES) {
+            instantanea = porUmbral.computeIfAbsent(umbral, u -> new Instantanea());
+        }
+        return instantanea;
+    }
+
+    private static InventarioResumenDTO resumir(Long franquiciaId, String franquiciaNombre, int umbral,
+                                                List<InventarioSucursalDTO> sucursales, int recalculadas) {
+        long productos = 0;
+        long stockTotal = 0;
+        long bajoStock = 0;
+        Integer minimo = null;
+        Integer maximo = null;
+        for (InventarioSucursalDTO sucursal : sucursales) {
+            productos += sucursal.getProductos();
+            stockTotal += sucursal.getStockTotal();
+            bajoStock += sucursal.getProductosBajoStock();
+            if (sucursal.getStockMinimo() != null && (minimo == null || sucursal.getStockMinimo() < minimo)) {
+                minimo = sucursal.getStockMinimo();
+            }
+            if (sucursal.getStockMaximo() != null && (maximo == null || sucursal.getStockMaximo() > maximo)) {
+                maximo = sucursal.getStockMaximo();
+            }
+        }
+        return InventarioResumenDTO.builder()
+                .franquiciaId(franquiciaId)
+                .franquiciaNombre(franquiciaNombre)
+                .umbralBajoStock(umbral)
+                .productos(productos)
+                .stockTotal(stockTotal)
+                .stockMinimo(minimo)
+                .stockMaximo(maximo)
+                .stockPromedio(productos == 0 ? null : (double) stockTotal / productos)
+                .productosBajoStock(bajoStock)
+                .sucursalesRecalculadas(recalculadas)
+                .sucursales(sucursales)
+                .build();
+    }
+
+    // Las marcas se aplican tras el commit: una lectura concurrente no debe consumirlas antes de
+    // que los cambios sean visibles
+    private void alConfirmar(Runnable cambio) {
+        if (cache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    /**
+     * Filas por sucursal de un (franquicia, umbral); sucursales y cargada se protegen con el monitor
+     */
+    private static final class Instantanea {
+        private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+        private final Map<Long, InventarioSucursalDTO> sucursales = new TreeMap<>();
+        private boolean cargada;
+    }
+}
@@ -1,17 +1,27 @@
 package com.DanielC.pruebatecnica.service;
 
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.ImportacionResponseDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
 import com.DanielC.pruebatecnica.dto.ProductoRequestDTO;
 import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductoService {
     ProductoResponseDTO crearProducto(ProductoRequestDTO requestDTO);
+    ImportacionResponseDTO crearProductos(List<ProductoRequestDTO> requestDTOs);
     ProductoResponseDTO obtenerProductoPorId(Long id);
     List<ProductoResponseDTO> obtenerTodosLosProductos();
+    EstadoAgregadoDTO obtenerEstadoProducto(Long id);
+    EstadoAgregadoDTO obtenerEstadoProductos();
+    PaginaResponseDTO<ProductoResponseDTO> obtenerProductosPaginados(Long after, int limit);
+    void exportarProductos(Consumer<ProductoResponseDTO> consumidor);
     List<ProductoResponseDTO> obtenerProductosPorSucursal(Long sucursalId);
-    ProductoResponseDTO actualizarStockProducto(Long id, Integer nuevoStock);
-    ProductoResponseDTO actualizarNombreProducto(Long id, String nuevoNombre);
+    ProductoResponseDTO actualizarStockProducto(Long id, Integer nuevoStock, Long versionEsperada);
+    ProductoResponseDTO ajustarStockProducto(Long id, int delta);
+    ProductoResponseDTO actualizarNombreProducto(Long id, String nuevoNombre, Long versionEsperada);
     void eliminarProducto(Long id);
 }
 
@@ -1,22 +1,41 @@
 package com.DanielC.pruebatecnica.service;
 
+import com.DanielC.pruebatecnica.config.CacheConfig;
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.ImportacionResponseDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
 import com.DanielC.pruebatecnica.dto.ProductoRequestDTO;
 import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
 import com.DanielC.pruebatecnica.exception.ProductoNotFoundException;
+import com.DanielC.pruebatecnica.exception.StockInsuficienteException;
 import com.DanielC.pruebatecnica.exception.SucursalNotFoundException;
+import com.DanielC.pruebatecnica.exception.VersionMismatchException;
 import com.DanielC.pruebatecnica.model.Producto;
 import com.DanielC.pruebatecnica.model.Sucursal;
 import com.DanielC.pruebatecnica.repository.ProductoRepository;
 import com.DanielC.pruebatecnica.repository.SucursalRepository;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "servicio.invocaciones", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
@@ -24,6 +43,14 @@ public class ProductoServiceImpl implements ProductoService {
 
     private final ProductoRepository productoRepository;
     private final SucursalRepository sucursalRepository;
+    private final EntityManager entityManager;
+    private final ImportacionValidator importacionValidator;
+    private final CatalogoCache catalogoCache;
+    private final IndiceMayorStock indiceMayorStock;
+    private final AlertasStock alertasStock;
+
+    @Value("${app.bulk.batch-size:500}")
+    private int batchSize;
 
     @Override
     public ProductoResponseDTO crearProducto(ProductoRequestDTO requestDTO) {
@@ -39,17 +66,68 @@ public class ProductoServiceImpl implements ProductoService {
                 .sucursal(sucursal)
                 .build();
 
-        Producto saved = productoRepository.save(producto);
+        Producto saved = productoRepository.saveAndFlush(producto);
+        catalogoCache.invalidarContenedores(sucursal);
+        indiceMayorStock.registrarProducto(saved);
         log.info("Producto creado con ID: {}", saved.getId());
 
         return mapToResponseDTO(saved);
     }
 
+    @Override
+    public ImportacionResponseDTO crearProductos(List<ProductoRequestDTO> requestDTOs) {
+        importacionValidator.validar(requestDTOs);
+        log.info("Creando {} productos de forma masiva", requestDTOs.size());
+
+        // Cada sucursal distinta se consulta una sola vez
+        Set<Long> sucursalIds = requestDTOs.stream()
+                .map(ProductoRequestDTO::getSucursalId)
+                .collect(Collectors.toSet());
+        Map<Long, Sucursal> sucursales = sucursalRepository.findAllById(sucursalIds).stream()
+                .collect(Collectors.toMap(Sucursal::getId, Function.identity()));
+        if (sucursales.size() != sucursalIds.size()) {
+            List<Long> faltantes = sucursalIds.stream()
+                    .filter(id -> !sucursales.containsKey(id))
+                    .sorted()
+                    .collect(Collectors.toList());
+            throw new SucursalNotFoundException("Sucursales no encontradas con ids: " + faltantes);
+        }
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        List<Long> ids = new ArrayList<>(requestDTOs.size());
+        for (int i = 0; i < requestDTOs.size(); i++) {
+            ProductoRequestDTO requestDTO = requestDTOs.get(i);
+            Producto producto = Producto.builder()
+                    .nombre(requestDTO.getNombre())
+                    .stock(requestDTO.getStock())
+                    .sucursal(sucursales.get(requestDTO.getSucursalId()))
+                    .build();
+            entityManager.persist(producto);
+            indiceMayorStock.registrarProducto(producto);
+            ids.add(producto.getId());
+
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        sucursales.values().forEach(catalogoCache::invalidarContenedores);
+
+        log.info("{} productos creados", ids.size());
+        return ImportacionResponseDTO.builder()
+                .total(ids.size())
+                .ids(ids)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(CacheConfig.PRODUCTOS)
     public ProductoResponseDTO obtenerProductoPorId(Long id) {
-        log.info("Obteniendo producto con ID: {}", id);
-        Producto producto = productoRepository.findById(id)
+        log.debug("Obteniendo producto con ID: {}", id);
+        Producto producto = productoRepository.findConSucursalById(id)
                 .orElseThrow(() -> new ProductoNotFoundException(id));
         return mapToResponseDTO(producto);
     }
@@ -57,16 +135,68 @@ public class ProductoServiceImpl implements ProductoService {
     @Override
     @Transactional(readOnly = true)
     public List<ProductoResponseDTO> obtenerTodosLosProductos() {
-        log.info("Obteniendo todos los productos");
+        log.debug("Obteniendo todos los productos");
         return productoRepository.findAll().stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Estado del producto y de su sucursal (por sucursalNombre)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public EstadoAgregadoDTO obtenerEstadoProducto(Long id) {
+        EstadoAgregadoDTO estado = productoRepository.findEstadoById(id);
+        if (estado.isVacio()) {
+            throw new ProductoNotFoundException(id);
+        }
+        return estado.combinar(sucursalRepository.findEstadoByProductoId(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EstadoAgregadoDTO obtenerEstadoProductos() {
+        return productoRepository.findEstado().combinar(sucursalRepository.findEstado());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaResponseDTO<ProductoResponseDTO> obtenerProductosPaginados(Long after, int limit) {
+        int tamano = Math.min(Math.max(limit, 1), PaginaResponseDTO.LIMITE_MAXIMO);
+        log.debug("Obteniendo página de productos después de ID: {} (limit {})", after, tamano);
+        List<Producto> productos = productoRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(tamano + 1));
+
+        List<ProductoResponseDTO> items = productos.stream()
+                .limit(tamano)
+                .map(this::mapToResponseDTO)
+                .collect(Collectors.toList());
+
+        return PaginaResponseDTO.<ProductoResponseDTO>builder()
+                .items(items)
+                .limit(tamano)
+                .nextCursor(productos.size() > tamano ? items.get(tamano - 1).getId() : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarProductos(Consumer<ProductoResponseDTO> consumidor) {
+        log.debug("Exportando todos los productos");
+        try (Stream<Producto> productos = productoRepository.streamAllByOrderByIdAsc()) {
+            productos.forEach(producto -> {
+                consumidor.accept(mapToResponseDTO(producto));
+                // Se desacopla cada producto ya escrito para que el contexto de persistencia no crezca
+                entityManager.detach(producto);
+            });
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ProductoResponseDTO> obtenerProductosPorSucursal(Long sucursalId) {
-        log.info("Obteniendo productos de sucursal ID: {}", sucursalId);
+        log.debug("Obteniendo productos de sucursal ID: {}", sucursalId);
         if (!sucursalRepository.existsById(sucursalId)) {
             throw new SucursalNotFoundException(sucursalId);
         }
@@ -76,38 +206,74 @@ public class ProductoServiceImpl implements ProductoService {
     }
 
     @Override
-    public ProductoResponseDTO actualizarStockProducto(Long id, Integer nuevoStock) {
+    @ReintentoOptimista
+    public ProductoResponseDTO actualizarStockProducto(Long id, Integer nuevoStock, Long versionEsperada) {
         log.info("Actualizando stock de producto ID: {} a {}", id, nuevoStock);
-        Producto producto = productoRepository.findById(id)
+        Producto producto = productoRepository.findConSucursalById(id)
                 .orElseThrow(() -> new ProductoNotFoundException(id));
+        if (versionEsperada != null && !versionEsperada.equals(producto.getVersion())) {
+            throw new VersionMismatchException("Producto", id, versionEsperada, producto.getVersion());
+        }
 
+        int stockAnterior = producto.getStock();
         producto.setStock(nuevoStock);
-        Producto updated = productoRepository.save(producto);
+        Producto updated = productoRepository.saveAndFlush(producto);
+        catalogoCache.invalidarProducto(updated);
+        indiceMayorStock.registrarProducto(updated);
+        alertasStock.stockCambiado(updated, stockAnterior);
         log.info("Stock actualizado exitosamente");
 
         return mapToResponseDTO(updated);
     }
 
     @Override
-    public ProductoResponseDTO actualizarNombreProducto(Long id, String nuevoNombre) {
+    public ProductoResponseDTO ajustarStockProducto(Long id, int delta) {
+        log.debug("Ajustando stock de producto ID: {} en {}", id, delta);
+        if (productoRepository.ajustarStock(id, delta) == 0) {
+            // La actualización condicional no afectó filas: se distingue el motivo solo en el caso de fallo
+            if (!productoRepository.existsById(id)) {
+                throw new ProductoNotFoundException(id);
+            }
+            throw new StockInsuficienteException(id, delta);
+        }
+        log.debug("Stock ajustado exitosamente");
+
+        Producto producto = productoRepository.findConSucursalById(id)
+                .orElseThrow(() -> new ProductoNotFoundException(id));
+        catalogoCache.invalidarProducto(producto);
+        indiceMayorStock.registrarProducto(producto);
+        alertasStock.stockCambiado(producto, producto.getStock() - delta);
+        return mapToResponseDTO(producto);
+    }
+
+    @Override
+    @ReintentoOptimista
+    public ProductoResponseDTO actualizarNombreProducto(Long id, String nuevoNombre, Long versionEsperada) {
         log.info("Actualizando nombre de producto ID: {}", id);
-        Producto producto = productoRepository.findById(id)
+        Producto producto = productoRepository.findConSucursalById(id)
                 .orElseThrow(() -> new ProductoNotFoundException(id));
+        if (versionEsperada != null && !versionEsperada.equals(producto.getVersion())) {
+            throw new VersionMismatchException("Producto", id, versionEsperada, producto.getVersion());
+        }
 
         producto.setNombre(nuevoNombre);
-        Producto updated = productoRepository.save(producto);
+        Producto updated = productoRepository.saveAndFlush(producto);
+        catalogoCache.invalidarProducto(updated);
+        indiceMayorStock.registrarProducto(updated);
         log.info("Nombre de producto actualizado exitosamente");
 
         return mapToResponseDTO(updated);
     }
 
     @Override
+    @ReintentoOptimista
     public void eliminarProducto(Long id) {
         log.info("Eliminando producto con ID: {}", id);
-        if (!productoRepository.existsById(id)) {
-            throw new ProductoNotFoundException(id);
-        }
-        productoRepository.deleteById(id);
+        Producto producto = productoRepository.findConSucursalById(id)
+                .orElseThrow(() -> new ProductoNotFoundException(id));
+        productoRepository.delete(producto);
+        catalogoCache.invalidarProducto(producto);
+        indiceMayorStock.eliminarProducto(id);
         log.info("Producto eliminado exitosamente");
     }
 
@@ -120,6 +286,7 @@ public class ProductoServiceImpl implements ProductoService {
                 .sucursalNombre(producto.getSucursal().getNombre())
                 .createdAt(producto.getCreatedAt())
                 .updatedAt(producto.getUpdatedAt())
+                .version(producto.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,26 @@
+package com.DanielC.pruebatecnica.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.resilience.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reintenta el método con backoff exponencial cuando otra transacción modificó la
+ * misma entidad. Cada intento abre una transacción nueva y vuelve a leer la entidad;
+ * agotados los reintentos se propaga la ObjectOptimisticLockingFailureException.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(includes = ObjectOptimisticLockingFailureException.class,
+        maxRetriesString = "${app.retry.max-retries:3}",
+        delayString = "${app.retry.delay-ms:20}",
+        multiplierString = "${app.retry.multiplier:2}",
+        jitterString = "${app.retry.jitter-ms:10}")
+public @interface ReintentoOptimista {
+}
@@ -0,0 +1,501 @@
+package com.DanielC.pruebatecnica.service;
+
+import com.DanielC.pruebatecnica.dto.WriteBehindEstadisticasDTO;
+import com.DanielC.pruebatecnica.exception.ProductoNotFoundException;
+import com.DanielC.pruebatecnica.exception.ServicioNoDisponibleException;
+import com.DanielC.pruebatecnica.exception.StockInsuficienteException;
+import com.DanielC.pruebatecnica.repository.ProductoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Acumulador write-behind para ajustes de stock (opcional, app.stock.write-behind.enabled).
+ * Los deltas se agrupan por producto en memoria y se escriben como un único UPDATE por lotes
+ * cada flush-interval-ms o en cuanto hay max-entries productos pendientes.
+ * <p>
+ * Durabilidad:
+ * <ul>
+ *     <li>ASYNC: la petición se confirma al encolar; los ajustes pendientes se pierden si el
+ *     proceso cae antes del siguiente flush.</li>
+ *     <li>GROUP_COMMIT: la petición espera al commit del flush que incluye su ajuste y recibe
+ *     el resultado real (incluido el 409 por stock insuficiente). Si no llega en espera-maxima-ms
+ *     y el ajuste aún no se está escribiendo, se retira de la cola y se responde 503.</li>
+ * </ul>
+ * Un flush que falla (conexión caída, timeout de bloqueo...) no descarta los ajustes: vuelven a la
+ * cola por delante de los llegados después y se reintentan con espera exponencial.
+ * <p>
+ * Cada flush compara el stock de cada producto antes y después del lote y publica en AlertasStock
+ * un cruce del umbral por producto (el del delta neto), tras el commit.
+ */
+@Service
+@Slf4j
+public class StockWriteBehindService {
+
+    public enum Durabilidad { ASYNC, GROUP_COMMIT }
+
+    private static final String SQL_AJUSTE = "UPDATE productos SET stock = stock + ?, updated_at = ?, " +
+            "version = version + 1 WHERE id = ? AND stock + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogoCache catalogoCache;
+    private final IndiceMayorStock indiceMayorStock;
+    private final ProductoRepository productoRepository;
+    private final AlertasStock alertasStock;
+    private final boolean habilitado;
+    private final long intervaloMs;
+    private final int maxEntradas;
+    private final Durabilidad durabilidad;
+    private final long esperaMaximaMs;
+    private final long reintentoInicialMs;
+    private final long reintentoMaximoMs;
+
+    private final ConcurrentHashMap<Long, Lote> pendientes = new ConcurrentHashMap<>();
+    private final AtomicInteger ajustesPendientes = new AtomicInteger();
+    private final AtomicBoolean flushSolicitado = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Los ajustes se encolan con el lock de lectura; detener() toma el de escritura para que ningún
+    // ajuste entre en la cola después del último flush
+    private final ReentrantReadWriteLock estadoLock = new ReentrantReadWriteLock();
+    private volatile boolean detenido;
+    private ScheduledExecutorService planificador;
+
+    /** Espera antes del siguiente intento tras un flush fallido; solo se usa con flushLock */
+    private long esperaReintentoMs;
+    private long proximoIntentoNanos;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong ajustesAplicados = new AtomicLong();
+    private final AtomicLong ajustesRechazados = new AtomicLong();
+    private final AtomicLong ajustesCancelados = new AtomicLong();
+    private final AtomicLong flushesFallidos = new AtomicLong();
+    private volatile long ultimaLatenciaNanos;
+    private volatile long maxLatenciaNanos;
+    private final Timer flushTimer;
+
+    public StockWriteBehindService(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   CatalogoCache catalogoCache,
+                                   IndiceMayorStock indiceMayorStock,
+                                   ProductoRepository productoRepository,
+                                   AlertasStock alertasStock,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.stock.write-behind.enabled:false}") boolean habilitado,
+                                   @Value("${app.stock.write-behind.flush-interval-ms:50}") long intervaloMs,
+                                   @Value("${app.stock.write-behind.max-entries:1000}") int maxEntradas,
+                                   @Value("${app.stock.write-behind.durability:ASYNC}") Durabilidad durabilidad,
+                                   @Value("${app.stock.write-behind.espera-maxima-ms:2000}") long esperaMaximaMs,
+                                   @Value("${app.stock.write-behind.reintento-inicial-ms:100}") long reintentoInicialMs,
+                                   @Value("${app.stock.write-behind.reintento-maximo-ms:5000}") long reintentoMaximoMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogoCache = catalogoCache;
+        this.indiceMayorStock = indiceMayorStock;
+        this.productoRepository = productoRepository;
+        this.alertasStock = alertasStock;
+        this.habilitado = habilitado;
+        this.intervaloMs = intervaloMs;
+        this.maxEntradas = maxEntradas;
+        this.durabilidad = durabilidad;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.reintentoInicialMs = reintentoInicialMs;
+        this.reintentoMaximoMs = reintentoMaximoMs;
+
+        Gauge.builder("stock.writebehind.pendientes", ajustesPendientes, AtomicInteger::get)
+                .description("Ajustes de stock pendientes de escribir")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("stock.writebehind.flush")
+                .description("Duración de cada flush del write-behind de stock")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        planificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "stock-write-behind");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        planificador.scheduleWithFixedDelay(this::flushProgramado, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        log.info("Write-behind de stock habilitado: intervalo {} ms, máximo {} productos, durabilidad {}",
+                intervaloMs, maxEntradas, durabilidad);
+    }
+
+    /**
+     * Deja de aceptar ajustes y vacía los pendientes antes de cerrar el contexto
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        if (planificador == null) {
+            return;
+        }
+        estadoLock.writeLock().lock();
+        try {
+            detenido = true;
+        } finally {
+            estadoLock.writeLock().unlock();
+        }
+        planificador.shutdown();
+        planificador.awaitTermination(5, TimeUnit.SECONDS);
+        // Unos pocos intentos más con la misma espera; lo que siga pendiente se pierde
+        for (int intento = 1; intento <= 3 && !pendientes.isEmpty(); intento++) {
+            flushLock.lock();
+            try {
+                proximoIntentoNanos = 0;
+            } finally {
+                flushLock.unlock();
+            }
+            flush();
+            if (!pendientes.isEmpty()) {
+                Thread.sleep(Math.min(reintentoMaximoMs, reintentoInicialMs << intento));
+            }
+        }
+        if (pendientes.isEmpty()) {
+            log.info("Write-behind de stock detenido, ajustes pendientes escritos");
+        } else {
+            log.error("Write-behind de stock detenido con {} ajustes sin escribir en {} productos",
+                    ajustesPendientes.get(), pendientes.size());
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Encola un ajuste de stock. Devuelve true si el ajuste ya está confirmado en la base de
+     * datos (GROUP_COMMIT) o false si solo se aceptó para escribirse más tarde (ASYNC).
+     */
+    public boolean ajustar(Long id, int delta) {
+        AjustePendiente ajuste = new AjustePendiente(delta);
+        estadoLock.readLock().lock();
+        try {
+            if (detenido) {
+                throw new ServicioNoDisponibleException("El acumulador de stock se está deteniendo");
+            }
+            pendientes.compute(id, (clave, lote) -> {
+                Lote actual = lote == null ? new Lote() : lote;
+                actual.ajustes.add(ajuste);
+                return actual;
+            });
+            ajustesPendientes.incrementAndGet();
+        } finally {
+            estadoLock.readLock().unlock();
+        }
+        if (pendientes.size() >= maxEntradas) {
+            solicitarFlush();
+        }
+
+        if (durabilidad == Durabilidad.ASYNC) {
+            return false;
+        }
+        esperar(id, ajuste);
+        return true;
+    }
+
+    private void esperar(Long id, AjustePendiente ajuste) {
+        while (true) {
+            try {
+                ajuste.resultado.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+                return;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                // Un ajuste que se está escribiendo no se puede retirar: se espera al resultado del flush
+                if (ajuste.cancelar()) {
+                    throw noConfirmado(id);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (ajuste.cancelar()) {
+                    throw noConfirmado(id);
+                }
+            }
+        }
+    }
+
+    private ServicioNoDisponibleException noConfirmado(Long id) {
+        ajustesCancelados.incrementAndGet();
+        return new ServicioNoDisponibleException("El ajuste de stock del producto " + id
+                + " no se confirmó en " + esperaMaximaMs + " ms y no se aplicó");
+    }
+
+    /**
+     * Escribe todos los ajustes pendientes en un único lote
+     */
+    public void flush() {
+        // ReentrantLock en lugar de synchronized: no fija el hilo portador si se llama desde un hilo virtual
+        flushLock.lock();
+        try {
+            if (!pendientes.isEmpty()) {
+                escribirPendientes();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void escribirPendientes() {
+        if (System.nanoTime() < proximoIntentoNanos) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        List<Long> ids = new ArrayList<>(pendientes.size());
+        List<Lote> lotes = new ArrayList<>(pendientes.size());
+        for (Long id : pendientes.keySet()) {
+            Lote lote = pendientes.remove(id);
+            if (lote == null) {
+                continue;
+            }
+            ajustesPendientes.addAndGet(-lote.ajustes.size());
+            // Los ajustes que su petición ya retiró por timeout no se escriben
+            lote.ajustes.removeIf(ajuste -> !ajuste.reclamar());
+            if (!lote.ajustes.isEmpty()) {
+                ids.add(id);
+                lotes.add(lote);
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<Runnable> confirmaciones = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Integer> stockAnterior = stockActual(ids);
+                aplicar(ids, lotes, confirmaciones);
+                catalogoCache.invalidarProductos(ids);
+                productoRepository.findAllById(ids).forEach(producto -> {
+                    indiceMayorStock.registrarProducto(producto);
+                    Integer anterior = stockAnterior.get(producto.getId());
+                    if (anterior != null) {
+                        // Publica tras el commit; si el flush revierte no llega a los suscriptores
+                        alertasStock.stockCambiado(producto, anterior);
+                    }
+                });
+            });
+            confirmaciones.forEach(Runnable::run);
+            esperaReintentoMs = 0;
+        } catch (RuntimeException e) {
+            flushesFallidos.incrementAndGet();
+            esperaReintentoMs = esperaReintentoMs == 0
+                    ? reintentoInicialMs
+                    : Math.min(esperaReintentoMs * 2, reintentoMaximoMs);
+            proximoIntentoNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaReintentoMs);
+            log.error("Error escribiendo ajustes de stock de {} productos; se reintentan en {} ms",
+                    ids.size(), esperaReintentoMs, e);
+            for (int i = 0; i < ids.size(); i++) {
+                reencolar(ids.get(i), lotes.get(i));
+            }
+        }
+
+        long latencia = System.nanoTime() - inicio;
+        flushTimer.record(latencia, TimeUnit.NANOSECONDS);
+        flushes.incrementAndGet();
+        ultimaLatenciaNanos = latencia;
+        maxLatenciaNanos = Math.max(maxLatenciaNanos, latencia);
+        log.debug("Flush de {} productos en {} ms", ids.size(), latencia / 1_000_000.0);
+    }
+
+    /**
+     * Devuelve a la cola un lote cuyo flush falló, por delante de los ajustes llegados después
+     */
+    private void reencolar(Long id, Lote fallido) {
+        fallido.ajustes.forEach(AjustePendiente::liberar);
+        ajustesPendientes.addAndGet(fallido.ajustes.size());
+        pendientes.compute(id, (clave, nuevo) -> {
+            if (nuevo != null) {
+                fallido.ajustes.addAll(nuevo.ajustes);
+            }
+            return fallido;
+        });
+    }
+
+    public WriteBehindEstadisticasDTO obtenerEstadisticas() {
+        return WriteBehindEstadisticasDTO.builder()
+                .habilitado(habilitado)
+                .durabilidad(durabilidad.name())
+                .ajustesPendientes(ajustesPendientes.get())
+                .productosPendientes(pendientes.size())
+                .flushes(flushes.get())
+                .ajustesAplicados(ajustesAplicados.get())
+                .ajustesRechazados(ajustesRechazados.get())
+                .ajustesCancelados(ajustesCancelados.get())
+                .flushesFallidos(flushesFallidos.get())
+                .ultimaLatenciaFlushMs(ultimaLatenciaNanos / 1_000_000.0)
+                .maxLatenciaFlushMs(maxLatenciaNanos / 1_000_000.0)
+                .build();
+    }
+
+    /**
+     * Stock de los productos antes de aplicar el lote, leído en la transacción del flush
+     */
+    private Map<Long, Integer> stockActual(List<Long> ids) {
+        Map<Long, Integer> stock = new HashMap<>(ids.size() * 2);
+        String marcadores = String.join(",", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.query("SELECT id, stock FROM productos WHERE id IN (" + marcadores + ")",
+                fila -> {
+                    stock.put(fila.getLong(1), fila.getInt(2));
+                }, ids.toArray());
+        return stock;
+    }
+
+    private void aplicar(List<Long> ids, List<Lote> lotes, List<Runnable> confirmaciones) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        int[] filas = jdbcTemplate.batchUpdate(SQL_AJUSTE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int suma = lotes.get(i).suma();
+                ps.setInt(1, suma);
+                ps.setTimestamp(2, ahora);
+                ps.setLong(3, ids.get(i));
+                ps.setInt(4, suma);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+
+        for (int i = 0; i < ids.size(); i++) {
+            Lote lote = lotes.get(i);
+            if (filas[i] > 0) {
+                // Los contadores se actualizan en las confirmaciones, que solo corren tras el commit:
+                // un flush revertido y reencolado no cuenta sus ajustes dos veces
+                confirmaciones.add(() -> ajustesAplicados.addAndGet(lote.ajustes.size()));
+                lote.ajustes.forEach(a -> confirmaciones.add(() -> a.resultado.complete(null)));
+            } else {
+                // El delta neto no se pudo aplicar: se reintenta ajuste por ajuste en orden de llegada
+                aplicarIndividualmente(ids.get(i), lote, ahora, confirmaciones);
+            }
+        }
+    }
+
+    private void aplicarIndividualmente(Long id, Lote lote, Timestamp ahora, List<Runnable> confirmaciones) {
+        boolean existe = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM productos WHERE id = ?", Integer.class, id) > 0;
+        for (AjustePendiente ajuste : lote.ajustes) {
+            if (existe && jdbcTemplate.update(SQL_AJUSTE, ajuste.delta, ahora, id, ajuste.delta) > 0) {
+                confirmaciones.add(() -> {
+                    ajustesAplicados.incrementAndGet();
+                    ajuste.resultado.complete(null);
+                });
+                continue;
+            }
+            RuntimeException error = existe
+                    ? new StockInsuficienteException(id, ajuste.delta)
+                    : new ProductoNotFoundException(id);
+            confirmaciones.add(() -> {
+                ajustesRechazados.incrementAndGet();
+                log.warn("Ajuste de stock descartado: {}", error.getMessage());
+                ajuste.resultado.completeExceptionally(error);
+            });
+        }
+    }
+
+    private void solicitarFlush() {
+        if (planificador != null && !detenido && flushSolicitado.compareAndSet(false, true)) {
+            try {
+                planificador.execute(this::flushProgramado);
+            } catch (RejectedExecutionException e) {
+                // detener() ya escribe los pendientes
+                flushSolicitado.set(false);
+            }
+        }
+    }
+
+    private void flushProgramado() {
+        flushSolicitado.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Error en el flush programado de stock", e);
+        }
+    }
+
+    /**
+     * Ajuste encolado. El flush lo reclama antes de escribirlo y la petición que espera lo cancela
+     * al agotar el timeout: solo uno de los dos gana, así que un 503 nunca acompaña a un ajuste aplicado.
+     */
+    private static final class AjustePendiente {
+        private static final int PENDIENTE = 0;
+        private static final int ESCRIBIENDO = 1;
+        private static final int CANCELADO = 2;
+
+        private final int delta;
+        private final CompletableFuture<Void> resultado = new CompletableFuture<>();
+        private final AtomicInteger estado = new AtomicInteger(PENDIENTE);
+
+        private AjustePendiente(int delta) {
+            this.delta = delta;
+        }
+
+        private boolean reclamar() {
+            return estado.compareAndSet(PENDIENTE, ESCRIBIENDO);
+        }
+
+        private void liberar() {
+            estado.set(PENDIENTE);
+        }
+
+        private boolean cancelar() {
+            return estado.compareAndSet(PENDIENTE, CANCELADO);
+        }
+    }
+
+    /**
+     * Ajustes pendientes de un producto en orden de llegada; solo se modifica dentro de
+     * ConcurrentHashMap.compute o después de retirarlo del mapa
+     */
+    private static final class Lote {
+        private final List<AjustePendiente> ajustes = new ArrayList<>(2);
+
+        private int suma() {
+            int suma = 0;
+            for (AjustePendiente ajuste : ajustes) {
+                suma += ajuste.delta;
+            }
+            return suma;
+        }
+    }
+}
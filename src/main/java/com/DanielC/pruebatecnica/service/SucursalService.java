@@ -1,16 +1,26 @@
 package com.DanielC.pruebatecnica.service;
 
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.ImportacionResponseDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
 import com.DanielC.pruebatecnica.dto.SucursalRequestDTO;
 import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.dto.UmbralStockDTO;
 
 import java.util.List;
 
 public interface SucursalService {
     SucursalResponseDTO crearSucursal(SucursalRequestDTO requestDTO);
+    ImportacionResponseDTO crearSucursales(List<SucursalRequestDTO> requestDTOs);
     SucursalResponseDTO obtenerSucursalPorId(Long id);
     List<SucursalResponseDTO> obtenerTodasLasSucursales();
+    EstadoAgregadoDTO obtenerEstadoSucursal(Long id);
+    EstadoAgregadoDTO obtenerEstadoSucursales();
+    PaginaResponseDTO<SucursalResponseDTO> obtenerSucursalesPaginadas(Long after, int limit);
     List<SucursalResponseDTO> obtenerSucursalesPorFranquicia(Long franquiciaId);
-    SucursalResponseDTO actualizarNombreSucursal(Long id, String nombre);
+    SucursalResponseDTO actualizarNombreSucursal(Long id, String nombre, Long versionEsperada);
+    UmbralStockDTO obtenerUmbralStock(Long id);
+    UmbralStockDTO actualizarUmbralStock(Long id, Integer umbral, Long versionEsperada);
     void eliminarSucursal(Long id);
 }
 
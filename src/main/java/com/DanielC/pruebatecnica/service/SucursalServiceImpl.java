@@ -1,24 +1,41 @@
 package com.DanielC.pruebatecnica.service;
 
+import com.DanielC.pruebatecnica.config.CacheConfig;
+import com.DanielC.pruebatecnica.dto.EstadoAgregadoDTO;
+import com.DanielC.pruebatecnica.dto.ImportacionResponseDTO;
+import com.DanielC.pruebatecnica.dto.PaginaResponseDTO;
 import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
 import com.DanielC.pruebatecnica.dto.SucursalRequestDTO;
 import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.dto.UmbralStockDTO;
 import com.DanielC.pruebatecnica.exception.FranquiciaNotFoundException;
 import com.DanielC.pruebatecnica.exception.SucursalNotFoundException;
+import com.DanielC.pruebatecnica.exception.VersionMismatchException;
 import com.DanielC.pruebatecnica.model.Franquicia;
 import com.DanielC.pruebatecnica.model.Sucursal;
 import com.DanielC.pruebatecnica.repository.FranquiciaRepository;
+import com.DanielC.pruebatecnica.repository.ProductoRepository;
 import com.DanielC.pruebatecnica.repository.SucursalRepository;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "servicio.invocaciones", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
@@ -26,6 +43,15 @@ public class SucursalServiceImpl implements SucursalService {
 
     private final SucursalRepository sucursalRepository;
     private final FranquiciaRepository franquiciaRepository;
+    private final EntityManager entityManager;
+    private final ImportacionValidator importacionValidator;
+    private final CatalogoCache catalogoCache;
+    private final IndiceMayorStock indiceMayorStock;
+    private final ProductoRepository productoRepository;
+    private final AlertasStock alertasStock;
+
+    @Value("${app.bulk.batch-size:500}")
+    private int batchSize;
 
     @Override
     public SucursalResponseDTO crearSucursal(SucursalRequestDTO requestDTO) {
@@ -41,17 +67,68 @@ public class SucursalServiceImpl implements SucursalService {
                 .productos(new ArrayList<>())
                 .build();
 
-        Sucursal saved = sucursalRepository.save(sucursal);
+        Sucursal saved = sucursalRepository.saveAndFlush(sucursal);
+        catalogoCache.invalidarEntradasFranquicia(franquicia.getId());
+        indiceMayorStock.registrarSucursal(saved);
         log.info("Sucursal creada con ID: {}", saved.getId());
 
         return mapToResponseDTO(saved);
     }
 
+    @Override
+    public ImportacionResponseDTO crearSucursales(List<SucursalRequestDTO> requestDTOs) {
+        importacionValidator.validar(requestDTOs);
+        log.info("Creando {} sucursales de forma masiva", requestDTOs.size());
+
+        // Cada franquicia distinta se consulta una sola vez
+        Set<Long> franquiciaIds = requestDTOs.stream()
+                .map(SucursalRequestDTO::getFranquiciaId)
+                .collect(Collectors.toSet());
+        Map<Long, Franquicia> franquicias = franquiciaRepository.findAllById(franquiciaIds).stream()
+                .collect(Collectors.toMap(Franquicia::getId, Function.identity()));
+        if (franquicias.size() != franquiciaIds.size()) {
+            List<Long> faltantes = franquiciaIds.stream()
+                    .filter(id -> !franquicias.containsKey(id))
+                    .sorted()
+                    .collect(Collectors.toList());
+            throw new FranquiciaNotFoundException("Franquicias no encontradas con ids: " + faltantes);
+        }
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        List<Long> ids = new ArrayList<>(requestDTOs.size());
+        for (int i = 0; i < requestDTOs.size(); i++) {
+            SucursalRequestDTO requestDTO = requestDTOs.get(i);
+            Sucursal sucursal = Sucursal.builder()
+                    .nombre(requestDTO.getNombre())
+                    .franquicia(franquicias.get(requestDTO.getFranquiciaId()))
+                    .productos(new ArrayList<>())
+                    .build();
+            entityManager.persist(sucursal);
+            indiceMayorStock.registrarSucursal(sucursal);
+            ids.add(sucursal.getId());
+
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        franquiciaIds.forEach(catalogoCache::invalidarEntradasFranquicia);
+
+        log.info("{} sucursales creadas", ids.size());
+        return ImportacionResponseDTO.builder()
+                .total(ids.size())
+                .ids(ids)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(CacheConfig.SUCURSALES)
     public SucursalResponseDTO obtenerSucursalPorId(Long id) {
-        log.info("Obteniendo sucursal con ID: {}", id);
-        Sucursal sucursal = sucursalRepository.findById(id)
+        log.debug("Obteniendo sucursal con ID: {}", id);
+        Sucursal sucursal = sucursalRepository.findConDetalleById(id)
                 .orElseThrow(() -> new SucursalNotFoundException(id));
         return mapToResponseDTO(sucursal);
     }
@@ -59,16 +136,58 @@ public class SucursalServiceImpl implements SucursalService {
     @Override
     @Transactional(readOnly = true)
     public List<SucursalResponseDTO> obtenerTodasLasSucursales() {
-        log.info("Obteniendo todas las sucursales");
+        log.debug("Obteniendo todas las sucursales");
         return sucursalRepository.findAll().stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Estado de la sucursal, su franquicia (por franquiciaNombre) y sus productos
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public EstadoAgregadoDTO obtenerEstadoSucursal(Long id) {
+        EstadoAgregadoDTO estado = sucursalRepository.findEstadoById(id);
+        if (estado.isVacio()) {
+            throw new SucursalNotFoundException(id);
+        }
+        return estado.combinar(franquiciaRepository.findEstadoBySucursalId(id))
+                .combinar(productoRepository.findEstadoBySucursalId(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EstadoAgregadoDTO obtenerEstadoSucursales() {
+        return sucursalRepository.findEstado()
+                .combinar(franquiciaRepository.findEstado())
+                .combinar(productoRepository.findEstado());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaResponseDTO<SucursalResponseDTO> obtenerSucursalesPaginadas(Long after, int limit) {
+        int tamano = Math.min(Math.max(limit, 1), PaginaResponseDTO.LIMITE_MAXIMO);
+        log.debug("Obteniendo página de sucursales después de ID: {} (limit {})", after, tamano);
+        List<Sucursal> sucursales = sucursalRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(tamano + 1));
+
+        List<SucursalResponseDTO> items = sucursales.stream()
+                .limit(tamano)
+                .map(this::mapToResponseDTO)
+                .collect(Collectors.toList());
+
+        return PaginaResponseDTO.<SucursalResponseDTO>builder()
+                .items(items)
+                .limit(tamano)
+                .nextCursor(sucursales.size() > tamano ? items.get(tamano - 1).getId() : null)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<SucursalResponseDTO> obtenerSucursalesPorFranquicia(Long franquiciaId) {
-        log.info("Obteniendo sucursales de franquicia ID: {}", franquiciaId);
+        log.debug("Obteniendo sucursales de franquicia ID: {}", franquiciaId);
         if (!franquiciaRepository.existsById(franquiciaId)) {
             throw new FranquiciaNotFoundException(franquiciaId);
         }
@@ -78,25 +197,58 @@ public class SucursalServiceImpl implements SucursalService {
     }
 
     @Override
-    public SucursalResponseDTO actualizarNombreSucursal(Long id, String nombre) {
+    @ReintentoOptimista
+    public SucursalResponseDTO actualizarNombreSucursal(Long id, String nombre, Long versionEsperada) {
         log.info("Actualizando nombre de sucursal ID: {}", id);
-        Sucursal sucursal = sucursalRepository.findById(id)
+        Sucursal sucursal = sucursalRepository.findConDetalleById(id)
                 .orElseThrow(() -> new SucursalNotFoundException(id));
+        if (versionEsperada != null && !versionEsperada.equals(sucursal.getVersion())) {
+            throw new VersionMismatchException("Sucursal", id, versionEsperada, sucursal.getVersion());
+        }
 
         sucursal.setNombre(nombre);
-        Sucursal updated = sucursalRepository.save(sucursal);
+        Sucursal updated = sucursalRepository.saveAndFlush(sucursal);
+        catalogoCache.invalidarSucursal(updated);
+        indiceMayorStock.registrarSucursal(updated);
         log.info("Sucursal actualizada exitosamente");
 
         return mapToResponseDTO(updated);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public UmbralStockDTO obtenerUmbralStock(Long id) {
+        Sucursal sucursal = sucursalRepository.findById(id)
+                .orElseThrow(() -> new SucursalNotFoundException(id));
+        return mapToUmbralDTO(sucursal);
+    }
+
+    @Override
+    @ReintentoOptimista
+    public UmbralStockDTO actualizarUmbralStock(Long id, Integer umbral, Long versionEsperada) {
+        log.info("Actualizando umbral de bajo stock de sucursal ID: {} a {}", id, umbral);
+        Sucursal sucursal = sucursalRepository.findById(id)
+                .orElseThrow(() -> new SucursalNotFoundException(id));
+        if (versionEsperada != null && !versionEsperada.equals(sucursal.getVersion())) {
+            throw new VersionMismatchException("Sucursal", id, versionEsperada, sucursal.getVersion());
+        }
+
+        sucursal.setUmbralBajoStock(umbral);
+        Sucursal updated = sucursalRepository.saveAndFlush(sucursal);
+        // La versión de la sucursal cacheada cambia; sus productos no llevan el umbral
+        catalogoCache.invalidarContenedores(updated);
+        return mapToUmbralDTO(updated);
+    }
+
+    @Override
+    @ReintentoOptimista
     public void eliminarSucursal(Long id) {
         log.info("Eliminando sucursal con ID: {}", id);
-        if (!sucursalRepository.existsById(id)) {
-            throw new SucursalNotFoundException(id);
-        }
-        sucursalRepository.deleteById(id);
+        Sucursal sucursal = sucursalRepository.findConDetalleById(id)
+                .orElseThrow(() -> new SucursalNotFoundException(id));
+        sucursalRepository.delete(sucursal);
+        catalogoCache.invalidarSucursal(sucursal);
+        indiceMayorStock.eliminarSucursal(id);
         log.info("Sucursal eliminada exitosamente");
     }
 
@@ -110,6 +262,7 @@ public class SucursalServiceImpl implements SucursalService {
                         .sucursalNombre(sucursal.getNombre())
                         .createdAt(producto.getCreatedAt())
                         .updatedAt(producto.getUpdatedAt())
+                        .version(producto.getVersion())
                         .build())
                 .collect(Collectors.toList());
 
@@ -121,7 +274,16 @@ public class SucursalServiceImpl implements SucursalService {
                 .productos(productosDTO)
                 .createdAt(sucursal.getCreatedAt())
                 .updatedAt(sucursal.getUpdatedAt())
+                .version(sucursal.getVersion())
                 .build();
     }
-}
 
+    private UmbralStockDTO mapToUmbralDTO(Sucursal sucursal) {
+        return UmbralStockDTO.builder()
+                .sucursalId(sucursal.getId())
+                .umbral(alertasStock.umbralDe(sucursal))
+                .porDefecto(sucursal.getUmbralBajoStock() == null)
+                .version(sucursal.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+-- Datos de prueba. Solo se cargan si spring.flyway.locations incluye classpath:db/datos
+-- (perfil por defecto). Es versionada (1.1, tras el esquema inicial) para aplicarse una sola vez:
+-- los ids son fijos y una migración repetible volvería a insertarlos al cambiar el fichero.
+-- No se edita: los cambios de datos van en una migración nueva de db/datos.
+
+-- Insertar franquicias
+INSERT INTO franquicias (nombre, created_at, updated_at, version) VALUES
+('McDonald''s', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+('Starbucks', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+('Subway', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Insertar sucursales para McDonald's (id=1)
+INSERT INTO sucursales (id, nombre, franquicia_id, created_at, updated_at, version) VALUES
+(1, 'McDonald''s Centro', 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(2, 'McDonald''s Norte', 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(3, 'McDonald''s Sur', 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Insertar sucursales para Starbucks (id=2)
+INSERT INTO sucursales (id, nombre, franquicia_id, created_at, updated_at, version) VALUES
+(4, 'Starbucks Plaza Mayor', 2, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(5, 'Starbucks Aeropuerto', 2, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Insertar sucursales para Subway (id=3)
+INSERT INTO sucursales (id, nombre, franquicia_id, created_at, updated_at, version) VALUES
+(6, 'Subway Centro Comercial', 3, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(7, 'Subway Universidad', 3, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Insertar productos para McDonald's Centro (sucursal_id=1)
+INSERT INTO productos (id, nombre, stock, sucursal_id, created_at, updated_at, version) VALUES
+(1, 'Big Mac', 150, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(2, 'McNuggets 10 pzas', 200, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(3, 'Papas Fritas Medianas', 180, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(4, 'McFlurry Oreo', 95, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Insertar productos para McDonald's Norte (sucursal_id=2)
+INSERT INTO productos (id, nombre, stock, sucursal_id, created_at, updated_at, version) VALUES
+(5, 'Big Mac', 120, 2, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(6, 'Quarter Pounder', 140, 2, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(7, 'McNuggets 20 pzas', 175, 2, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(8, 'Coca-Cola Mediana', 250, 2, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Insertar productos para McDonald's Sur (sucursal_id=3)
+INSERT INTO productos (id, nombre, stock, sucursal_id, created_at, updated_at, version) VALUES
+(9, 'Happy Meal', 160, 3, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(10, 'Big Mac', 110, 3, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(11, 'Sundae Chocolate', 130, 3, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Insertar productos para Starbucks Plaza Mayor (sucursal_id=4)
+INSERT INTO productos (id, nombre, stock, sucursal_id, created_at, updated_at, version) VALUES
+(12, 'Caffe Latte Grande', 100, 4, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(13, 'Frappuccino Caramelo', 85, 4, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(14, 'Cappuccino Venti', 120, 4, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(15, 'Croissant', 60, 4, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Insertar productos para Starbucks Aeropuerto (sucursal_id=5)
+INSERT INTO productos (id, nombre, stock, sucursal_id, created_at, updated_at, version) VALUES
+(16, 'Espresso Doble', 95, 5, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(17, 'Caffe Americano', 140, 5, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(18, 'Muffin Arándanos', 75, 5, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Insertar productos para Subway Centro Comercial (sucursal_id=6)
+INSERT INTO productos (id, nombre, stock, sucursal_id, created_at, updated_at, version) VALUES
+(19, 'Sub Italiano 30cm', 110, 6, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(20, 'Sub Pollo Teriyaki 15cm', 145, 6, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(21, 'Sub Vegetariano', 90, 6, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(22, 'Galletas Chocolate Chip', 160, 6, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Insertar productos para Subway Universidad (sucursal_id=7)
+INSERT INTO productos (id, nombre, stock, sucursal_id, created_at, updated_at, version) VALUES
+(23, 'Sub B.M.T. 30cm', 125, 7, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(24, 'Sub Atún 15cm', 105, 7, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(25, 'Papas Fritas', 170, 7, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+(26, 'Refresco 500ml', 200, 7, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
+
+-- Los ids de sucursales y productos salen de secuencias pooled (incremento 50);
+-- se reinician por encima de los ids insertados manualmente
+ALTER SEQUENCE sucursales_seq RESTART WITH 100;
+ALTER SEQUENCE productos_seq RESTART WITH 100;
@@ -0,0 +1,38 @@
+-- Esquema inicial: el mismo que generaba Hibernate con ddl-auto=create-drop.
+-- Sucursales y productos usan secuencias pooled (incremento 50, igual que allocationSize).
+
+CREATE SEQUENCE sucursales_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE productos_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE franquicias (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nombre VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    version BIGINT NOT NULL,
+    CONSTRAINT pk_franquicias PRIMARY KEY (id)
+);
+
+CREATE TABLE sucursales (
+    id BIGINT NOT NULL,
+    nombre VARCHAR(100) NOT NULL,
+    franquicia_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    version BIGINT NOT NULL,
+    CONSTRAINT pk_sucursales PRIMARY KEY (id),
+    CONSTRAINT fk_sucursales_franquicia FOREIGN KEY (franquicia_id) REFERENCES franquicias (id)
+);
+
+CREATE TABLE productos (
+    id BIGINT NOT NULL,
+    nombre VARCHAR(100) NOT NULL,
+    stock INTEGER NOT NULL,
+    sucursal_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    version BIGINT NOT NULL,
+    CONSTRAINT pk_productos PRIMARY KEY (id),
+    CONSTRAINT ck_productos_stock CHECK (stock >= 0),
+    CONSTRAINT fk_productos_sucursal FOREIGN KEY (sucursal_id) REFERENCES sucursales (id)
+);
@@ -0,0 +1,13 @@
+-- Índices para las columnas de búsqueda más usadas.
+-- PostgreSQL no indexa las claves foráneas por sí solo; H2 sí, pero reutiliza estos índices
+-- cuando su primera columna coincide con la de la clave.
+
+-- findByNombre
+CREATE INDEX idx_franquicias_nombre ON franquicias (nombre);
+
+-- findByFranquiciaId / findResumenByFranquiciaId (ORDER BY s.id) y joins franquicia -> sucursales
+CREATE INDEX idx_sucursales_franquicia_id ON sucursales (franquicia_id, id);
+
+-- findBySucursalId y el producto con más stock por sucursal (ORDER BY stock DESC, id):
+-- el mismo índice sirve para el filtro por sucursal y para leer el top-k sin ordenar
+CREATE INDEX idx_productos_sucursal_stock ON productos (sucursal_id, stock DESC, id);
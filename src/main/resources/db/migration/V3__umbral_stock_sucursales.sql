@@ -0,0 +1,4 @@
+-- Umbral de bajo stock propio de cada sucursal para las alertas de stock.
+-- NULL significa que la sucursal usa el umbral por defecto (app.alertas.umbral-por-defecto).
+ALTER TABLE sucursales ADD COLUMN umbral_bajo_stock INTEGER;
+ALTER TABLE sucursales ADD CONSTRAINT ck_sucursales_umbral_bajo_stock CHECK (umbral_bajo_stock >= 0);
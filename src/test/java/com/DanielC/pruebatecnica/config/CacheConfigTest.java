@@ -0,0 +1,61 @@
+package com.DanielC.pruebatecnica.config;
+
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.ProductoResponseDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Límite de las cachés por elementos del árbol de DTOs en lugar de por entradas
+ */
+class CacheConfigTest {
+
+    @Test
+    void elPesoCuentaSucursalesYProductos() {
+        assertThat(CacheConfig.peso(ProductoResponseDTO.builder().id(1L).build())).isEqualTo(1);
+        assertThat(CacheConfig.peso(franquicia(1L, 0))).isEqualTo(1);
+        assertThat(CacheConfig.peso(franquicia(1L, 10))).isEqualTo(1 + 2 + 2 * 10);
+    }
+
+    @Test
+    void unaFranquiciaCompletaGrandeNoDesplazaAlRestoNiSeQueda() {
+        SimpleCacheManager cacheManager = (SimpleCacheManager) new CacheConfig().cacheManager(60, 100, 60, 100, 60, 100);
+        cacheManager.afterPropertiesSet();
+        Cache franquicias = cacheManager.getCache(CacheConfig.FRANQUICIAS);
+        IntStream.rangeClosed(1, 5).forEach(id -> franquicias.put(id, franquicia((long) id, 0)));
+
+        franquicias.put(99L, franquicia(99L, 1000));
+        limpiar(franquicias);
+
+        assertThat(franquicias.get(99L)).isNull();
+        IntStream.rangeClosed(1, 5).forEach(id -> assertThat(franquicias.get(id)).isNotNull());
+    }
+
+    private static void limpiar(Cache cache) {
+        Cache destino = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+        ((CaffeineCache) destino).getNativeCache().cleanUp();
+    }
+
+    private static FranquiciaResponseDTO franquicia(Long id, int productosPorSucursal) {
+        List<SucursalResponseDTO> sucursales = productosPorSucursal == 0 ? null : List.of(
+                sucursal(1L, productosPorSucursal), sucursal(2L, productosPorSucursal));
+        return FranquiciaResponseDTO.builder().id(id).nombre("Franquicia " + id).sucursales(sucursales).build();
+    }
+
+    private static SucursalResponseDTO sucursal(Long id, int productos) {
+        return SucursalResponseDTO.builder()
+                .id(id)
+                .productos(Collections.nCopies(productos, ProductoResponseDTO.builder().id(1L).build()))
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package com.DanielC.pruebatecnica.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba con EXPLAIN que las consultas de búsqueda de los repositorios se resuelven con los
+ * índices de V2__indices_busqueda.sql y no recorriendo tablas completas. El SQL es el que genera
+ * Hibernate para cada método, capturado con un StatementInspector, así que el test falla si
+ * cambia la consulta o desaparece el índice. Usa el perfil postgres-h2 para poder ejecutar las
+ * variantes con DISTINCT ON; H2 marca los recorridos completos con "tableScan".
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:indices;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "app.r2dbc.url=r2dbc:h2:mem:///indices?options=MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+})
+@ActiveProfiles("postgres-h2")
+class IndicesConsultasTest {
+
+    private static final List<String> SENTENCIAS = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class CapturaSentencias {
+
+        // Se aplica después del de SentenciasPorPeticionConfig (@Order(0)) y lo encadena
+        @Bean
+        HibernatePropertiesCustomizer inspectorSentencias() {
+            return propiedades -> {
+                StatementInspector previo = (StatementInspector) propiedades.get(AvailableSettings.STATEMENT_INSPECTOR);
+                propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                    SENTENCIAS.add(sql);
+                    return previo != null ? previo.inspect(sql) : sql;
+                });
+            };
+        }
+    }
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private SucursalRepository sucursalRepository;
+
+    @Autowired
+    private FranquiciaRepository franquiciaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void preparar() {
+        SENTENCIAS.clear();
+    }
+
+    @Test
+    void findBySucursalId() {
+        productoRepository.findBySucursalId(1L);
+        assertSinRecorridoCompleto();
+    }
+
+    @Test
+    void findTopStockPorSucursalByFranquiciaId() {
+        productoRepository.findTopStockPorSucursalByFranquiciaId(1L, 3);
+        assertSinRecorridoCompleto();
+    }
+
+    @Test
+    void findMaxStockPorSucursalByFranquiciaIdDistinctOn() {
+        productoRepository.findMaxStockPorSucursalByFranquiciaIdDistinctOn(1L);
+        assertSinRecorridoCompleto();
+    }
+
+    @Test
+    void findByFranquiciaId() {
+        sucursalRepository.findByFranquiciaId(1L);
+        assertSinRecorridoCompleto();
+    }
+
+    @Test
+    void findByNombre() {
+        franquiciaRepository.findByNombre("McDonald's");
+        assertSinRecorridoCompleto();
+    }
+
+    private void assertSinRecorridoCompleto() {
+        assertThat(SENTENCIAS).as("Sentencias capturadas").hasSize(1);
+        String plan = plan(SENTENCIAS.get(0));
+        assertThat(plan).as("Plan de %s", SENTENCIAS.get(0)).doesNotContainIgnoringCase("tableScan");
+    }
+
+    /**
+     * EXPLAIN de la sentencia con todos los parámetros a 1: el plan de H2 no depende de sus valores
+     */
+    private String plan(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) conexion -> {
+            try (PreparedStatement sentencia = conexion.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= sentencia.getParameterMetaData().getParameterCount(); i++) {
+                    sentencia.setObject(i, 1);
+                }
+                try (ResultSet filas = sentencia.executeQuery()) {
+                    StringBuilder plan = new StringBuilder();
+                    while (filas.next()) {
+                        plan.append(filas.getString(1)).append(' ');
+                    }
+                    return plan.toString().replaceAll("\\s+", " ").trim();
+                }
+            }
+        });
+    }
+}
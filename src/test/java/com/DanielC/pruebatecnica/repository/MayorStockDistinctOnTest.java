@@ -0,0 +1,81 @@
+package com.DanielC.pruebatecnica.repository;
+
+import com.DanielC.pruebatecnica.dto.ProductoMaxStockDTO;
+import com.DanielC.pruebatecnica.model.Producto;
+import com.DanielC.pruebatecnica.model.Sucursal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las consultas con DISTINCT ON del perfil postgres devuelven las mismas filas que las que usa el
+ * resto de perfiles (ROW_NUMBER y NOT EXISTS), también con empates en el stock: gana el producto
+ * de menor id. Cada test añade los empates en su transacción, que se deshace al terminar.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:distinctOn;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "app.r2dbc.url=r2dbc:h2:mem:///distinctOn?options=MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+})
+@ActiveProfiles("postgres-h2")
+@Transactional
+class MayorStockDistinctOnTest {
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private SucursalRepository sucursalRepository;
+
+    private Long empateNuevoMenor;
+
+    @BeforeEach
+    void empatar() {
+        // Sucursal 1: empata con el producto 2 (stock 200), que tiene menor id
+        guardar("Empate Centro", 200, 1L);
+        // Sucursal 3: dos productos nuevos empatados por encima del resto
+        empateNuevoMenor = guardar("Empate Sur A", 300, 3L).getId();
+        guardar("Empate Sur B", 300, 3L);
+        // Sucursal 6: empata con el producto 22 (stock 160)
+        guardar("Empate Comercial", 160, 6L);
+        productoRepository.flush();
+    }
+
+    @Test
+    void mayorStockPorSucursal() {
+        List<ProductoMaxStockDTO> distinctOn = productoRepository.findMaxStockPorSucursalDistinctOn();
+
+        assertThat(distinctOn).containsExactlyElementsOf(productoRepository.findMaxStockPorSucursal());
+        assertThat(ganadores(distinctOn))
+                .containsEntry(1L, 2L)
+                .containsEntry(3L, empateNuevoMenor)
+                .containsEntry(6L, 22L);
+    }
+
+    @Test
+    void mayorStockPorSucursalDeCadaFranquicia() {
+        for (long franquiciaId = 1; franquiciaId <= 3; franquiciaId++) {
+            assertThat(productoRepository.findMaxStockPorSucursalByFranquiciaIdDistinctOn(franquiciaId))
+                    .as("Franquicia %d", franquiciaId)
+                    .isNotEmpty()
+                    .containsExactlyElementsOf(productoRepository.findTopStockPorSucursalByFranquiciaId(franquiciaId, 1));
+        }
+    }
+
+    private Producto guardar(String nombre, int stock, Long sucursalId) {
+        Sucursal sucursal = sucursalRepository.getReferenceById(sucursalId);
+        return productoRepository.save(Producto.builder().nombre(nombre).stock(stock).sucursal(sucursal).build());
+    }
+
+    private static Map<Long, Long> ganadores(List<ProductoMaxStockDTO> filas) {
+        return filas.stream().collect(Collectors.toMap(ProductoMaxStockDTO::getSucursalId, ProductoMaxStockDTO::getProductoId));
+    }
+}
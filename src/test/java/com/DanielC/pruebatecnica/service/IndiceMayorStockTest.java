@@ -0,0 +1,91 @@
+package com.DanielC.pruebatecnica.service;
+
+import com.DanielC.pruebatecnica.dto.FranquiciaResponseDTO;
+import com.DanielC.pruebatecnica.dto.ProductoMaxStockDTO;
+import com.DanielC.pruebatecnica.dto.SucursalResponseDTO;
+import com.DanielC.pruebatecnica.model.Franquicia;
+import com.DanielC.pruebatecnica.model.Producto;
+import com.DanielC.pruebatecnica.model.Sucursal;
+import com.DanielC.pruebatecnica.repository.FranquiciaRepository;
+import com.DanielC.pruebatecnica.repository.ProductoRepository;
+import com.DanielC.pruebatecnica.repository.SucursalRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Carga del índice de mayor stock con repositorios simulados
+ */
+class IndiceMayorStockTest {
+
+    private final Sucursal sucursal = Sucursal.builder().id(10L).nombre("Centro")
+            .franquicia(Franquicia.builder().id(1L).build()).build();
+
+    private ProductoRepository productoRepository;
+    private IndiceMayorStock indice;
+
+    @BeforeEach
+    void preparar() {
+        productoRepository = mock(ProductoRepository.class);
+        SucursalRepository sucursalRepository = mock(SucursalRepository.class);
+        FranquiciaRepository franquiciaRepository = mock(FranquiciaRepository.class);
+        when(franquiciaRepository.findAllResumen())
+                .thenReturn(List.of(new FranquiciaResponseDTO(1L, "Franquicia", null, null, 0L)));
+        when(sucursalRepository.findAllResumen())
+                .thenReturn(List.of(new SucursalResponseDTO(10L, "Centro", 1L, "Franquicia", null, null, 0L)));
+        indice = new IndiceMayorStock(productoRepository, sucursalRepository, franquiciaRepository,
+                mock(EntityManager.class), mock(PlatformTransactionManager.class), true, false);
+    }
+
+    @Test
+    void unCambioConfirmadoDuranteLaCargaNoEsperaYSeConservaEnElIndiceNuevo() {
+        when(productoRepository.streamAllByOrderByIdAsc()).thenAnswer(invocacion -> Stream.of(producto(1L, 50))
+                .peek(leido -> {
+                    // Otro hilo confirma un producto con más stock mientras se recorre la tabla
+                    CompletableFuture<Void> commit = CompletableFuture.runAsync(
+                            () -> indice.registrarProducto(producto(2L, 80)));
+                    assertThat(commit).succeedsWithin(1, TimeUnit.SECONDS);
+                }));
+
+        indice.calentar();
+
+        assertThat(indice.isListo()).isTrue();
+        assertThat(indice.mayorStockPorSucursal(1L, 2).orElseThrow())
+                .extracting(ProductoMaxStockDTO::getProductoId)
+                .containsExactly(2L, 1L);
+    }
+
+    @Test
+    void unIdQueNoCabeEnLaClaveDesactivaElIndice() {
+        when(productoRepository.streamAllByOrderByIdAsc())
+                .thenAnswer(invocacion -> Stream.of(producto(1L, 50), producto(1L << 32, 80)));
+
+        indice.calentar();
+
+        assertThat(indice.isListo()).isFalse();
+    }
+
+    @Test
+    void unIdQueNoCabeConfirmadoDespuesDeCargarDesactivaElIndice() {
+        when(productoRepository.streamAllByOrderByIdAsc()).thenAnswer(invocacion -> Stream.of(producto(1L, 50)));
+        indice.calentar();
+
+        indice.registrarProducto(producto(1L << 32, 80));
+
+        assertThat(indice.isListo()).isFalse();
+    }
+
+    private Producto producto(Long id, int stock) {
+        return Producto.builder().id(id).nombre("Producto " + id).stock(stock).version(0L).sucursal(sucursal).build();
+    }
+}
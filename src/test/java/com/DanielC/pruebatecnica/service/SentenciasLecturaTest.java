@@ -0,0 +1,132 @@
+package com.DanielC.pruebatecnica.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Máximo de sentencias SQL de cada método de lectura de productos y sucursales, contado con las
+ * estadísticas de Hibernate. Los máximos no dependen del número de filas: si una lectura pasa a
+ * cargar asociaciones fila a fila (N+1), los datos de prueba con varias sucursales y productos por
+ * sucursal lo superan.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:sentencias;DB_CLOSE_DELAY=-1",
+        "app.r2dbc.url=r2dbc:h2:mem:///sentencias"
+})
+class SentenciasLecturaTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private SucursalService sucursalService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void preparar() {
+        // Las lecturas por id se cachean: sin vaciar la caché no llegarían a la base de datos
+        cacheManager.getCacheNames().forEach(nombre -> Objects.requireNonNull(cacheManager.getCache(nombre)).clear());
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    void obtenerProductoPorId() {
+        assertSentencias(1, () -> productoService.obtenerProductoPorId(1L));
+    }
+
+    @Test
+    void obtenerTodosLosProductos() {
+        assertSentencias(1, () -> assertThat(productoService.obtenerTodosLosProductos()).hasSizeGreaterThan(1));
+    }
+
+    @Test
+    void obtenerEstadoProducto() {
+        assertSentencias(2, () -> productoService.obtenerEstadoProducto(1L));
+    }
+
+    @Test
+    void obtenerEstadoProductos() {
+        assertSentencias(2, () -> productoService.obtenerEstadoProductos());
+    }
+
+    @Test
+    void obtenerProductosPaginados() {
+        assertSentencias(1, () -> productoService.obtenerProductosPaginados(null, 500));
+    }
+
+    @Test
+    void exportarProductos() {
+        List<Long> ids = new ArrayList<>();
+        assertSentencias(1, () -> productoService.exportarProductos(producto -> ids.add(producto.getId())));
+        assertThat(ids).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void obtenerProductosPorSucursal() {
+        assertSentencias(2, () -> assertThat(productoService.obtenerProductosPorSucursal(1L)).hasSizeGreaterThan(1));
+    }
+
+    @Test
+    void obtenerSucursalPorId() {
+        assertSentencias(1, () -> sucursalService.obtenerSucursalPorId(1L));
+    }
+
+    @Test
+    void obtenerTodasLasSucursales() {
+        assertSentencias(1, () -> assertThat(sucursalService.obtenerTodasLasSucursales()).hasSizeGreaterThan(1));
+    }
+
+    @Test
+    void obtenerEstadoSucursal() {
+        assertSentencias(3, () -> sucursalService.obtenerEstadoSucursal(1L));
+    }
+
+    @Test
+    void obtenerEstadoSucursales() {
+        assertSentencias(3, () -> sucursalService.obtenerEstadoSucursales());
+    }
+
+    @Test
+    void obtenerSucursalesPaginadas() {
+        // Página de sucursales y sus productos en un único lote
+        assertSentencias(2, () -> sucursalService.obtenerSucursalesPaginadas(null, 500));
+    }
+
+    @Test
+    void obtenerSucursalesPorFranquicia() {
+        assertSentencias(2, () -> assertThat(sucursalService.obtenerSucursalesPorFranquicia(1L)).hasSizeGreaterThan(1));
+    }
+
+    @Test
+    void obtenerUmbralStock() {
+        assertSentencias(1, () -> sucursalService.obtenerUmbralStock(1L));
+    }
+
+    private void assertSentencias(long maximo, Runnable lectura) {
+        lectura.run();
+        assertThat(estadisticas.getPrepareStatementCount())
+                .as("Sentencias SQL emitidas")
+                .isLessThanOrEqualTo(maximo);
+    }
+}
@@ -0,0 +1,145 @@
+package com.DanielC.pruebatecnica.service;
+
+import com.DanielC.pruebatecnica.exception.ServicioNoDisponibleException;
+import com.DanielC.pruebatecnica.model.Franquicia;
+import com.DanielC.pruebatecnica.model.Producto;
+import com.DanielC.pruebatecnica.model.Sucursal;
+import com.DanielC.pruebatecnica.repository.ProductoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reintentos, timeouts y parada del write-behind de stock, sin base de datos ni planificador:
+ * los flushes se lanzan a mano y el JdbcTemplate está simulado.
+ */
+class StockWriteBehindServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductoRepository productoRepository;
+    private AlertasStock alertasStock;
+
+    @BeforeEach
+    void preparar() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        productoRepository = mock(ProductoRepository.class);
+        alertasStock = mock(AlertasStock.class);
+    }
+
+    @Test
+    void flushFallidoReencolaLosAjustesYLosEscribeEnElReintento() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenThrow(new TransientDataAccessResourceException("conexión perdida"))
+                .thenReturn(new int[]{1});
+        StockWriteBehindService servicio = servicio(StockWriteBehindService.Durabilidad.ASYNC, 2000);
+
+        assertThat(servicio.ajustar(1L, 5)).isFalse();
+        servicio.flush();
+        assertThat(servicio.obtenerEstadisticas().getAjustesPendientes()).isEqualTo(1);
+        assertThat(servicio.obtenerEstadisticas().getFlushesFallidos()).isEqualTo(1);
+
+        // Un ajuste llegado durante la espera se escribe junto al reencolado
+        servicio.ajustar(1L, 2);
+        Thread.sleep(5);
+        servicio.flush();
+        assertThat(servicio.obtenerEstadisticas().getAjustesPendientes()).isZero();
+        assertThat(servicio.obtenerEstadisticas().getAjustesAplicados()).isEqualTo(2);
+    }
+
+    @Test
+    void flushRevertidoDespuesDelUpdateNoCuentaLosAjustesDosVeces() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1});
+        // El lote se escribe pero la transacción revierte después (al recargar los productos)
+        when(productoRepository.findAllById(anyIterable()))
+                .thenThrow(new TransientDataAccessResourceException("conexión perdida"))
+                .thenReturn(List.of());
+        StockWriteBehindService servicio = servicio(StockWriteBehindService.Durabilidad.ASYNC, 2000);
+
+        servicio.ajustar(1L, 5);
+        servicio.flush();
+        assertThat(servicio.obtenerEstadisticas().getAjustesAplicados()).isZero();
+
+        Thread.sleep(5);
+        servicio.flush();
+        assertThat(servicio.obtenerEstadisticas().getAjustesPendientes()).isZero();
+        assertThat(servicio.obtenerEstadisticas().getAjustesAplicados()).isEqualTo(1);
+    }
+
+    @Test
+    void groupCommitSinFlushATiempoRespondeNoDisponibleYNoEscribe() {
+        StockWriteBehindService servicio = servicio(StockWriteBehindService.Durabilidad.GROUP_COMMIT, 50);
+
+        assertThatThrownBy(() -> servicio.ajustar(1L, 5)).isInstanceOf(ServicioNoDisponibleException.class);
+        servicio.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        assertThat(servicio.obtenerEstadisticas().getAjustesCancelados()).isEqualTo(1);
+    }
+
+    @Test
+    void detenidoRechazaAjustesNuevos() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1});
+        StockWriteBehindService servicio = servicio(StockWriteBehindService.Durabilidad.ASYNC, 2000);
+        servicio.iniciar();
+        servicio.ajustar(1L, 5);
+
+        servicio.detener();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        assertThatThrownBy(() -> servicio.ajustar(1L, 1)).isInstanceOf(ServicioNoDisponibleException.class);
+    }
+
+    @Test
+    void flushPublicaElCruceDelUmbralConElStockAnteriorAlLote() throws Exception {
+        // Stock antes del lote: 12; tras los dos ajustes acumulados (-3 y -4): 5
+        ResultSet fila = mock(ResultSet.class);
+        when(fila.getLong(1)).thenReturn(1L);
+        when(fila.getInt(2)).thenReturn(12);
+        doAnswer(invocacion -> {
+            invocacion.<RowCallbackHandler>getArgument(1).processRow(fila);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1});
+        Sucursal sucursal = Sucursal.builder().id(1L).nombre("Centro")
+                .franquicia(Franquicia.builder().id(1L).build()).build();
+        Producto producto = Producto.builder().id(1L).nombre("Big Mac").stock(5).sucursal(sucursal).build();
+        when(productoRepository.findAllById(anyIterable())).thenReturn(List.of(producto));
+        StockWriteBehindService servicio = servicio(StockWriteBehindService.Durabilidad.ASYNC, 2000);
+
+        servicio.ajustar(1L, -3);
+        servicio.ajustar(1L, -4);
+        servicio.flush();
+
+        verify(alertasStock, times(1)).stockCambiado(eq(producto), eq(12));
+    }
+
+    private StockWriteBehindService servicio(StockWriteBehindService.Durabilidad durabilidad, long esperaMaximaMs) {
+        return new StockWriteBehindService(jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                mock(CatalogoCache.class), mock(IndiceMayorStock.class), productoRepository, alertasStock,
+                new SimpleMeterRegistry(), true, 60_000, 1000, durabilidad, esperaMaximaMs, 1, 10);
+    }
+}